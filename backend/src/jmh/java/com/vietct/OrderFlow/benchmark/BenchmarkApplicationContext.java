@@ -0,0 +1,52 @@
+package com.vietct.OrderFlow.benchmark;
+
+import com.vietct.OrderFlow.OrderFlowApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+
+/**
+ * Boots the application once per JMH fork against an embedded PostgreSQL, so database benchmarks need no Docker.
+ * Redis and Kafka are not started; the benchmarked paths do not use them.
+ */
+final class BenchmarkApplicationContext {
+
+    private static EmbeddedPostgres postgres;
+    private static ConfigurableApplicationContext context;
+
+    private BenchmarkApplicationContext() {
+    }
+
+    static synchronized ConfigurableApplicationContext get() throws IOException {
+        if (context == null) {
+            postgres = EmbeddedPostgres.builder().start();
+            context = new SpringApplicationBuilder(OrderFlowApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(
+                            "spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                            "spring.datasource.username=postgres",
+                            "spring.datasource.password=postgres",
+                            "spring.datasource.hikari.maximum-pool-size=32",
+                            "spring.jpa.hibernate.ddl-auto=validate",
+                            "spring.flyway.enabled=true",
+                            "orderflow.outbox.maintenance.initial-delay-ms=86400000",
+                            "logging.level.root=WARN")
+                    .run();
+        }
+        return context;
+    }
+
+    static synchronized void close() throws IOException {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+        if (postgres != null) {
+            postgres.close();
+            postgres = null;
+        }
+    }
+}
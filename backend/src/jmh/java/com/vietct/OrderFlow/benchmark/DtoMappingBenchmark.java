@@ -0,0 +1,67 @@
+package com.vietct.OrderFlow.benchmark;
+
+import com.vietct.OrderFlow.catalog.domain.Category;
+import com.vietct.OrderFlow.catalog.domain.Product;
+import com.vietct.OrderFlow.catalog.dto.ProductResponseDTO;
+import com.vietct.OrderFlow.order.domain.Order;
+import com.vietct.OrderFlow.order.domain.OrderItem;
+import com.vietct.OrderFlow.order.domain.OrderStatus;
+import com.vietct.OrderFlow.order.dto.OrderResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"1", "10"})
+    public int itemsPerOrder;
+
+    private Product product;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        Category category = new Category("Handhelds", "handhelds", "Portable consoles");
+        product = new Product("Steam Deck OLED", "512 GB handheld", new BigDecimal("549.00"), 40, "/img/deck.png", category);
+
+        order = new Order();
+        order.setUserId(UUID.randomUUID());
+        order.setStatus(OrderStatus.PAID);
+        order.setTotalAmount(new BigDecimal("549.00").multiply(BigDecimal.valueOf(itemsPerOrder)));
+        for (int i = 0; i < itemsPerOrder; i++) {
+            OrderItem item = new OrderItem();
+            item.setProduct(product);
+            item.setQuantity(1);
+            item.setPriceAtOrder(product.getPrice());
+            order.addItem(item);
+        }
+    }
+
+    @Benchmark
+    public OrderResponseDTO orderFromDomain() {
+        return OrderResponseDTO.fromDomain(order);
+    }
+
+    @Benchmark
+    public ProductResponseDTO productFromDomain() {
+        return ProductResponseDTO.fromDomain(product);
+    }
+}
@@ -0,0 +1,53 @@
+package com.vietct.OrderFlow.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vietct.OrderFlow.payment.event.PaymentCompletedEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentEventSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private PaymentCompletedEvent event;
+    private String json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        // same modules and features as the ObjectMapper Spring Boot injects into PaymentServiceImpl
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        event = new PaymentCompletedEvent(UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("1098.00"),
+                "CARD", Instant.now());
+        json = objectMapper.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public PaymentCompletedEvent deserialize() throws JsonProcessingException {
+        return objectMapper.readValue(json, PaymentCompletedEvent.class);
+    }
+}
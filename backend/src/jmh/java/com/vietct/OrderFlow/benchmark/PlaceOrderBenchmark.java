@@ -0,0 +1,104 @@
+package com.vietct.OrderFlow.benchmark;
+
+import com.vietct.OrderFlow.catalog.domain.Category;
+import com.vietct.OrderFlow.catalog.domain.Product;
+import com.vietct.OrderFlow.catalog.repository.CategoryRepository;
+import com.vietct.OrderFlow.catalog.repository.ProductRepository;
+import com.vietct.OrderFlow.inventory.domain.Inventory;
+import com.vietct.OrderFlow.inventory.repository.InventoryRepository;
+import com.vietct.OrderFlow.order.domain.Order;
+import com.vietct.OrderFlow.order.dto.OrderCreateRequest;
+import com.vietct.OrderFlow.order.dto.OrderItemRequest;
+import com.vietct.OrderFlow.order.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@code OrderService.placeOrder}: validation, stock reservation, order + payment + outbox writes.
+ * {@code products} controls contention: with 1 every thread fights over the same inventory row.
+ * {@code paymentCompletion} compares marking the order PAID inside the checkout with doing it after commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class PlaceOrderBenchmark {
+
+    @Param({"1", "100"})
+    public int products;
+
+    @Param({"1", "3"})
+    public int linesPerOrder;
+
+    @Param({"INLINE", "AFTER_COMMIT"})
+    public String paymentCompletion;
+
+    private OrderService orderService;
+    private List<UUID> productIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // each trial closes the context, so the next one starts with its own mode
+        System.setProperty("orderflow.payment.completion.mode", paymentCompletion);
+        ConfigurableApplicationContext context = BenchmarkApplicationContext.get();
+        orderService = context.getBean(OrderService.class);
+
+        Category category = context.getBean(CategoryRepository.class)
+                .save(new Category("Benchmark", "benchmark-" + UUID.randomUUID(), "JMH fixtures"));
+
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        InventoryRepository inventoryRepository = context.getBean(InventoryRepository.class);
+
+        productIds = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Product product = productRepository.save(new Product("Benchmark product " + i, "JMH fixture",
+                    new BigDecimal("19.99"), Integer.MAX_VALUE / 2, null, category));
+
+            Inventory inventory = new Inventory();
+            inventory.setProduct(product);
+            inventory.setAvailableQuantity(Integer.MAX_VALUE / 2);
+            inventoryRepository.save(inventory);
+
+            productIds.add(product.getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkApplicationContext.close();
+    }
+
+    @Benchmark
+    public Order placeOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<OrderItemRequest> items = new ArrayList<>(linesPerOrder);
+        for (int i = 0; i < linesPerOrder; i++) {
+            items.add(new OrderItemRequest(productIds.get(random.nextInt(productIds.size())), 1));
+        }
+        return orderService.placeOrder(new OrderCreateRequest(UUID.randomUUID(), items, "CARD"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.vietct.OrderFlow.benchmark;
+
+import com.vietct.OrderFlow.catalog.domain.Category;
+import com.vietct.OrderFlow.catalog.domain.Product;
+import com.vietct.OrderFlow.catalog.dto.ProductResponseDTO;
+import com.vietct.OrderFlow.catalog.dto.ProductSearchCriteria;
+import com.vietct.OrderFlow.catalog.repository.CategoryRepository;
+import com.vietct.OrderFlow.catalog.repository.ProductRepository;
+import com.vietct.OrderFlow.catalog.repository.ProductSpecifications;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One catalog search page against PostgreSQL, the way {@code CatalogServiceImpl} routes it: text through
+ * {@code ProductSearchRepository.searchByText}, filters only through {@link ProductSpecifications}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final String[] WORDS = {"deck", "board", "wheel", "truck", "helmet", "shoe", "grip", "bearing"};
+    private static final int PRODUCTS = 5_000;
+
+    private ProductRepository productRepository;
+    private ProductSearchCriteria textSearch;
+    private ProductSearchCriteria filtersOnly;
+    private Pageable firstPage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ConfigurableApplicationContext context = BenchmarkApplicationContext.get();
+        productRepository = context.getBean(ProductRepository.class);
+
+        Category category = context.getBean(CategoryRepository.class)
+                .save(new Category("Benchmark", "benchmark-" + UUID.randomUUID(), "JMH fixtures"));
+
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            String name = WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + i;
+            products.add(new Product(name, "JMH fixture " + WORDS[(i * 7) % WORDS.length],
+                    new BigDecimal(10 + i % 500), i % 10, null, category));
+        }
+        productRepository.saveAll(products);
+
+        textSearch = new ProductSearchCriteria("deck whe", category.getId(), null, new BigDecimal("400"), true);
+        filtersOnly = new ProductSearchCriteria(null, category.getId(), null, new BigDecimal("400"), true);
+        firstPage = PageRequest.of(0, 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkApplicationContext.close();
+    }
+
+    @Benchmark
+    public Page<ProductResponseDTO> textSearch() {
+        return productRepository.searchByText(textSearch, firstPage);
+    }
+
+    @Benchmark
+    public Page<ProductResponseDTO> filtersOnly() {
+        return productRepository.findListings(ProductSpecifications.build(filtersOnly), firstPage);
+    }
+}
@@ -0,0 +1,65 @@
+package com.vietct.OrderFlow.benchmark;
+
+import com.vietct.OrderFlow.catalog.domain.Product;
+import com.vietct.OrderFlow.catalog.dto.ProductSearchCriteria;
+import com.vietct.OrderFlow.catalog.repository.ProductSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSpecificationsBenchmark {
+
+    private EntityManager entityManager;
+    private CriteriaBuilder criteriaBuilder;
+    private ProductSearchCriteria allFilters;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        entityManager = BenchmarkApplicationContext.get().getBean(EntityManagerFactory.class).createEntityManager();
+        criteriaBuilder = entityManager.getCriteriaBuilder();
+        allFilters = new ProductSearchCriteria(null, UUID.randomUUID(), new BigDecimal("100.00"),
+                new BigDecimal("900.00"), true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        entityManager.close();
+        BenchmarkApplicationContext.close();
+    }
+
+    // building the Specification itself only captures the criteria; the predicate tree is the real cost
+    @Benchmark
+    public Predicate buildAndApply() {
+        Specification<Product> specification = ProductSpecifications.build(allFilters);
+        CriteriaQuery<Product> query = criteriaBuilder.createQuery(Product.class);
+        Root<Product> root = query.from(Product.class);
+        return specification.toPredicate(root, query, criteriaBuilder);
+    }
+}
@@ -0,0 +1,144 @@
+package com.vietct.OrderFlow.benchmark;
+
+import com.vietct.OrderFlow.catalog.domain.Category;
+import com.vietct.OrderFlow.catalog.domain.Product;
+import com.vietct.OrderFlow.catalog.dto.ProductSearchCriteria;
+import com.vietct.OrderFlow.catalog.repository.CategoryRepository;
+import com.vietct.OrderFlow.catalog.repository.ProductRepository;
+import com.vietct.OrderFlow.catalog.service.CatalogService;
+import com.vietct.OrderFlow.common.concurrent.WorkerThreads;
+import com.vietct.OrderFlow.inventory.domain.Inventory;
+import com.vietct.OrderFlow.inventory.repository.InventoryRepository;
+import com.vietct.OrderFlow.order.dto.OrderCreateRequest;
+import com.vietct.OrderFlow.order.dto.OrderItemRequest;
+import com.vietct.OrderFlow.order.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One operation is a burst of {@code concurrency} simultaneous {@code placeOrder} or search calls, dispatched the way
+ * Tomcat would: {@code platform} runs them on a 200-thread pool (Tomcat's default max-threads), {@code virtual} starts
+ * one virtual thread per call. Both share the 32-connection Hikari pool, which is where virtual threads end up queueing.
+ * {@code virtual} needs a Java 21 runtime.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(1)
+@Fork(1)
+public class ThreadingBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"200", "1000"})
+    public int concurrency;
+
+    private OrderService orderService;
+    private CatalogService catalogService;
+    private List<UUID> productIds;
+    private ExecutorService platformPool;
+    private Executor executor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ConfigurableApplicationContext context = BenchmarkApplicationContext.get();
+        orderService = context.getBean(OrderService.class);
+        catalogService = context.getBean(CatalogService.class);
+
+        Category category = context.getBean(CategoryRepository.class)
+                .save(new Category("Benchmark", "benchmark-" + UUID.randomUUID(), "JMH fixtures"));
+
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        InventoryRepository inventoryRepository = context.getBean(InventoryRepository.class);
+
+        productIds = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Product product = productRepository.save(new Product("Threading product " + i, "JMH fixture",
+                    new BigDecimal("19.99"), Integer.MAX_VALUE / 2, null, category));
+
+            Inventory inventory = new Inventory();
+            inventory.setProduct(product);
+            inventory.setAvailableQuantity(Integer.MAX_VALUE / 2);
+            inventoryRepository.save(inventory);
+
+            productIds.add(product.getId());
+        }
+
+        if ("virtual".equals(threads)) {
+            ThreadFactory factory = new WorkerThreads(true).factory("bench-virtual-");
+            executor = task -> factory.newThread(task).start();
+        } else {
+            platformPool = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS, WorkerThreads.platform().factory("bench-platform-"));
+            executor = platformPool;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (platformPool != null) {
+            platformPool.shutdown();
+        }
+        BenchmarkApplicationContext.close();
+    }
+
+    @Benchmark
+    public void placeOrder() throws InterruptedException {
+        burst(() -> {
+            UUID productId = productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+            orderService.placeOrder(new OrderCreateRequest(UUID.randomUUID(),
+                    List.of(new OrderItemRequest(productId, 1)), "CARD"));
+        });
+    }
+
+    @Benchmark
+    public void searchProducts() throws InterruptedException {
+        burst(() -> catalogService.searchProducts(
+                new ProductSearchCriteria("threading", null, null, null, true), PageRequest.of(0, 20)));
+    }
+
+    private void burst(Runnable call) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(() -> {
+                try {
+                    call.run();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+}
@@ -0,0 +1,65 @@
+package com.vietct.OrderFlow.common.rate_limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitingFilterBenchmark {
+
+    private RateLimitingFilter filter;
+    private TokenBucketRateLimiter rateLimiter;
+    private RateLimitProperties.Limit limit;
+    private MockHttpServletRequest userRequest;
+    private MockHttpServletRequest anonymousRequest;
+
+    @Setup
+    public void setUp() {
+        // admitting a request never touches Redis, only sync() does
+        rateLimiter = new TokenBucketRateLimiter(null, 100_000);
+        limit = new RateLimitProperties.Limit(Integer.MAX_VALUE, Duration.ofMinutes(1));
+        RateLimitProperties properties = new RateLimitProperties(Map.of("orders", new RateLimitProperties.Endpoint(
+                "POST", "/orders", RateLimitProperties.Algorithm.TOKEN_BUCKET, Map.of(RateLimitProperties.IdentityClass.USER, limit))));
+        filter = new RateLimitingFilter(rateLimiter, null, properties, new ObjectMapper(), new SimpleMeterRegistry());
+
+        userRequest = new MockHttpServletRequest("POST", "/orders");
+        userRequest.addHeader("X-User-Id", "5f0c7c1e-8e5b-4f43-9a3d-2b1f6a0d9c11");
+
+        anonymousRequest = new MockHttpServletRequest("POST", "/orders");
+        anonymousRequest.setRemoteAddr("203.0.113.42");
+    }
+
+    @Benchmark
+    public String userKey() {
+        return filter.resolveIdentity(userRequest).key();
+    }
+
+    @Benchmark
+    public String ipKey() {
+        return filter.resolveIdentity(anonymousRequest).key();
+    }
+
+    @Benchmark
+    public RateLimitDecision acquire() {
+        return rateLimiter.tryAcquire("orders", filter.resolveIdentity(userRequest), limit);
+    }
+}
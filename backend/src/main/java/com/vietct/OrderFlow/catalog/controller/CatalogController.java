@@ -1,17 +1,24 @@
 package com.vietct.OrderFlow.catalog.controller;
 
-import com.vietct.OrderFlow.catalog.domain.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vietct.OrderFlow.catalog.dto.ProductResponseDTO;
 import com.vietct.OrderFlow.catalog.dto.ProductSearchCriteria;
 import com.vietct.OrderFlow.catalog.service.CatalogService;
+import com.vietct.OrderFlow.common.export.NdjsonWriter;
+import com.vietct.OrderFlow.common.pagination.CursorPage;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.UUID;
 
@@ -21,9 +28,11 @@ import java.util.UUID;
 public class CatalogController {
 
     private final CatalogService catalogService;
+    private final ObjectMapper objectMapper;
 
-    public CatalogController(CatalogService catalogService) {
+    public CatalogController(CatalogService catalogService, ObjectMapper objectMapper) {
         this.catalogService = catalogService;
+        this.objectMapper = objectMapper;
     }
 
 
@@ -36,9 +45,11 @@ public class CatalogController {
             @RequestParam(name = "inStockOnly", required = false, defaultValue = "false") boolean inStockOnly,
             @RequestParam(name = "page", defaultValue = "0") @Min(0) int page,
             @RequestParam(name = "size", defaultValue = "10") @Min(1) int size,
-            @RequestParam(name = "sort", defaultValue = "createdAt,DESC") String sort
+            @RequestParam(name = "sort", required = false) String sort
     ) {
-        Sort sortSpec = parseSort(sort);
+        // text searches default to relevance order
+        boolean hasText = text != null && !text.isBlank();
+        Sort sortSpec = (sort == null && hasText) ? Sort.unsorted() : parseSort(sort);
 
         Pageable pageable = PageRequest.of(page, size, sortSpec);
 
@@ -50,9 +61,42 @@ public class CatalogController {
                 inStockOnly
         );
 
-        Page<Product> result = catalogService.searchProducts(criteria, pageable);
+        return catalogService.searchProducts(criteria, pageable);
+    }
+
+    // Keyset variant for deep paging (crawlers, infinite scroll): pass back nextCursor, no total is counted
+    @GetMapping("/scroll")
+    public CursorPage<ProductResponseDTO> scrollProducts(
+            @RequestParam(name = "q", required = false) String text,
+            @RequestParam(name = "categoryId", required = false) UUID categoryId,
+            @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+            @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+            @RequestParam(name = "inStockOnly", required = false, defaultValue = "false") boolean inStockOnly,
+            @RequestParam(name = "size", defaultValue = "20") @Min(1) @Max(100) int size,
+            @RequestParam(name = "sort", defaultValue = "createdAt,DESC")
+            @Pattern(regexp = "(createdAt|price)(,(ASC|DESC|asc|desc))?") String sort,
+            @RequestParam(name = "cursor", required = false) String cursor
+    ) {
+        Sort.Order order = parseSort(sort).iterator().next();
 
-        return result.map(ProductResponseDTO::fromDomain);
+        ProductSearchCriteria criteria = new ProductSearchCriteria(
+                text,
+                categoryId,
+                minPrice,
+                maxPrice,
+                inStockOnly
+        );
+
+        return catalogService.scrollProducts(criteria, order, cursor, size);
+    }
+
+    // Full catalog for partner pulls, one product per line, written as it is read
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportProducts(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response.getOutputStream())) {
+            catalogService.exportProducts(writer::write);
+        }
     }
 
     private Sort parseSort(String sort) {
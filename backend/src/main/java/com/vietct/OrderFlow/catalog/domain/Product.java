@@ -8,6 +8,7 @@ import java.math.BigDecimal;
 
 @Entity
 @Table(name = "product")
+@EntityListeners(ProductChangeListener.class)
 public class Product extends BaseEntity {
 
     @Column(name = "name", nullable = false, length = 255)
@@ -0,0 +1,30 @@
+package com.vietct.OrderFlow.catalog.domain;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Turns JPA writes of {@link Product} into {@link ProductChangedEvent}s. Instantiated by Hibernate through
+ * Spring's bean container, so the publisher is injected.
+ */
+public class ProductChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Product product) {
+        eventPublisher.publishEvent(ProductChangedEvent.upserted(product));
+    }
+
+    @PostRemove
+    public void onRemoved(Product product) {
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(product.getId()));
+    }
+}
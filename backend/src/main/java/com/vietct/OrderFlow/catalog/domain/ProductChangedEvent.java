@@ -0,0 +1,32 @@
+package com.vietct.OrderFlow.catalog.domain;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Snapshot of the searchable fields of a product after it was inserted, updated or deleted.
+ * Published by {@link ProductChangeListener}; {@code deleted} events carry only the id.
+ */
+public record ProductChangedEvent(
+        UUID productId,
+        String name,
+        String description,
+        BigDecimal price,
+        Integer stock,
+        UUID categoryId,
+        Instant createdAt,
+        boolean deleted
+) {
+
+    public static ProductChangedEvent upserted(Product product) {
+        // getId() on a lazy category proxy does not initialize it
+        UUID categoryId = product.getCategory() == null ? null : product.getCategory().getId();
+        return new ProductChangedEvent(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getStock(), categoryId, product.getCreatedAt(), false);
+    }
+
+    public static ProductChangedEvent deleted(UUID productId) {
+        return new ProductChangedEvent(productId, null, null, null, null, null, null, true);
+    }
+}
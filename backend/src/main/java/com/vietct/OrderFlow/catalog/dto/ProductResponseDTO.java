@@ -41,6 +41,24 @@ public class ProductResponseDTO {
         this.updatedAt = updatedAt;
     }
 
+    // flat shape for JPQL/Criteria constructor expressions, which cannot nest a second "new"
+    public ProductResponseDTO(UUID id,
+                              String name,
+                              String description,
+                              BigDecimal price,
+                              Integer stock,
+                              String imagePath,
+                              UUID categoryId,
+                              String categoryName,
+                              String categorySlug,
+                              String categoryDescription,
+                              Instant createdAt,
+                              Instant updatedAt) {
+        this(id, name, description, price, stock, imagePath,
+                new CategoryResponseDTO(categoryId, categoryName, categorySlug, categoryDescription),
+                createdAt, updatedAt);
+    }
+
     public static ProductResponseDTO fromDomain(Product product) {
         if (product == null) {
             return null;
@@ -1,14 +1,36 @@
 package com.vietct.OrderFlow.catalog.repository;
 
 import com.vietct.OrderFlow.catalog.domain.Product;
+import com.vietct.OrderFlow.catalog.dto.ProductResponseDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product>,
+        ProductSearchRepository {
 
     Page<Product> findByCategoryId(UUID categoryId, Pageable pageable);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    // unordered; callers that got the ids from a ranked source restore their order
+    @Query(LISTING_SELECT + " WHERE p.id IN :ids")
+    List<ProductResponseDTO> findListingsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // export: projected rows are never managed, and the fetch size keeps the PostgreSQL cursor server-side
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(LISTING_SELECT + " ORDER BY p.id")
+    Stream<ProductResponseDTO> streamListings();
 }
@@ -0,0 +1,47 @@
+package com.vietct.OrderFlow.catalog.repository;
+
+import com.vietct.OrderFlow.catalog.domain.Product;
+import com.vietct.OrderFlow.catalog.dto.ProductResponseDTO;
+import com.vietct.OrderFlow.catalog.dto.ProductSearchCriteria;
+import com.vietct.OrderFlow.common.pagination.Cursor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Text search over the indexed {@code product.search_vector} and trigram name index (V8), and keyset
+ * scrolling over the {@code (sort key, id)} indexes (V9).
+ * <p>
+ * Listings are read as {@link ProductResponseDTO} rows with the category joined in the same statement, so no
+ * entity is hydrated, snapshotted for dirty checking or asked for its lazy category.
+ */
+public interface ProductSearchRepository {
+
+    List<String> SCROLL_PROPERTIES = List.of("createdAt", "price");
+
+    String LISTING_SELECT = "SELECT new com.vietct.OrderFlow.catalog.dto.ProductResponseDTO(" +
+            "p.id, p.name, p.description, p.price, p.stock, p.imagePath, " +
+            "c.id, c.name, c.slug, c.description, p.createdAt, p.updatedAt) " +
+            "FROM Product p JOIN p.category c";
+
+    /**
+     * Listing rows matching {@code spec}, for filters that need no text search.
+     */
+    Page<ProductResponseDTO> findListings(Specification<Product> spec, Pageable pageable);
+
+    /**
+     * Matches {@code criteria.text()} by word prefix or by fuzzy name similarity and applies the remaining filters.
+     * An unsorted {@code pageable} orders the results by relevance.
+     */
+    Page<ProductResponseDTO> searchByText(ProductSearchCriteria criteria, Pageable pageable);
+
+    /**
+     * Up to {@code limit} products after {@code after} (or from the start), ordered by {@code order} and then id.
+     * Supported sort properties are {@link #SCROLL_PROPERTIES}. Text is matched like {@link #searchByText} but is
+     * not ranked.
+     */
+    List<ProductResponseDTO> scroll(ProductSearchCriteria criteria, Sort.Order order, Cursor after, int limit);
+}
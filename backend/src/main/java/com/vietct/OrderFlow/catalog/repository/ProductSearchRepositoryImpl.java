@@ -0,0 +1,238 @@
+package com.vietct.OrderFlow.catalog.repository;
+
+import com.vietct.OrderFlow.catalog.domain.Category;
+import com.vietct.OrderFlow.catalog.domain.Product;
+import com.vietct.OrderFlow.catalog.dto.ProductResponseDTO;
+import com.vietct.OrderFlow.catalog.dto.ProductSearchCriteria;
+import com.vietct.OrderFlow.common.pagination.Cursor;
+import com.vietct.OrderFlow.common.pagination.InvalidCursorException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class ProductSearchRepositoryImpl implements ProductSearchRepository {
+
+    // entity property -> column, for explicit sorts
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "createdAt", "created_at",
+            "updatedAt", "updated_at",
+            "name", "name",
+            "price", "price",
+            "stock", "stock"
+    );
+
+    private static final String RANK = "ts_rank_cd(p.search_vector, to_tsquery('english', :tsQuery)) " +
+            "+ word_similarity(:text, p.name)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductSearchRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Page<ProductResponseDTO> findListings(Specification<Product> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<ProductResponseDTO> query = cb.createQuery(ProductResponseDTO.class);
+        Root<Product> product = query.from(Product.class);
+        Join<Product, Category> category = product.join("category");
+        query.select(cb.construct(ProductResponseDTO.class,
+                product.get("id"), product.get("name"), product.get("description"), product.get("price"),
+                product.get("stock"), product.get("imagePath"),
+                category.get("id"), category.get("name"), category.get("slug"), category.get("description"),
+                product.get("createdAt"), product.get("updatedAt")));
+        Predicate predicate = spec.toPredicate(product, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), product, cb));
+
+        TypedQuery<ProductResponseDTO> typed = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typed.setFirstResult((int) pageable.getOffset());
+            typed.setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(typed.getResultList(), pageable, () -> count(spec));
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(cb.count(product));
+        Predicate predicate = spec.toPredicate(product, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public Page<ProductResponseDTO> searchByText(ProductSearchCriteria criteria, Pageable pageable) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = where(conditions(criteria, params));
+
+        StringBuilder sql = new StringBuilder("SELECT p.id FROM product p").append(where)
+                .append(" ORDER BY ").append(orderBy(pageable.getSort()));
+        if (pageable.isPaged()) {
+            sql.append(" LIMIT :limit OFFSET :offset");
+            params.addValue("limit", pageable.getPageSize());
+            params.addValue("offset", pageable.getOffset());
+        }
+
+        List<UUID> ids = jdbcTemplate.queryForList(sql.toString(), params, UUID.class);
+
+        return PageableExecutionUtils.getPage(loadInOrder(ids), pageable, () ->
+                Objects.requireNonNullElse(
+                        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product p" + where, params, Long.class),
+                        0L));
+    }
+
+    @Override
+    public List<ProductResponseDTO> scroll(ProductSearchCriteria criteria, Sort.Order order, Cursor after, int limit) {
+        String column = SORT_COLUMNS.get(order.getProperty());
+        if (column == null || !SCROLL_PROPERTIES.contains(order.getProperty())) {
+            throw new IllegalArgumentException("Unsupported scroll property: " + order.getProperty());
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<String> conditions = conditions(criteria, params);
+        String direction = order.isAscending() ? "ASC" : "DESC";
+
+        if (after != null) {
+            // row comparison keeps the seek on the (sort key, id) index, ties included
+            conditions.add("(p." + column + ", p.id) " + (order.isAscending() ? ">" : "<") + " (:afterValue, :afterId)");
+            params.addValue("afterValue", cursorValue(order.getProperty(), after.value()));
+            params.addValue("afterId", after.id());
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT p.id FROM product p").append(where(conditions));
+        sql.append(" ORDER BY p.").append(column).append(' ').append(direction)
+                .append(", p.id ").append(direction)
+                .append(" LIMIT :limit");
+        params.addValue("limit", limit);
+
+        return loadInOrder(jdbcTemplate.queryForList(sql.toString(), params, UUID.class));
+    }
+
+    private static Object cursorValue(String property, String value) {
+        try {
+            return switch (property) {
+                case "createdAt" -> Timestamp.from(Instant.parse(value));
+                case "price" -> new BigDecimal(value);
+                default -> throw new IllegalArgumentException("Unsupported scroll property: " + property);
+            };
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    // "Runing shoe" -> "Runing:* & shoe:*"; only letters and digits reach to_tsquery
+    static String toPrefixQuery(String text) {
+        return Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
+    private static List<String> conditions(ProductSearchCriteria criteria, MapSqlParameterSource params) {
+        List<String> conditions = new ArrayList<>();
+        if (criteria.text() != null && !criteria.text().isBlank()) {
+            String text = criteria.text().trim();
+            params.addValue("text", text);
+            params.addValue("tsQuery", toPrefixQuery(text));
+
+            // both branches are answered by GIN indexes and combined with a BitmapOr
+            conditions.add("(p.search_vector @@ to_tsquery('english', :tsQuery) OR p.name %> :text)");
+        }
+
+        if (criteria.categoryId() != null) {
+            conditions.add("p.category_id = :categoryId");
+            params.addValue("categoryId", criteria.categoryId());
+        }
+        if (criteria.minPrice() != null) {
+            conditions.add("p.price >= :minPrice");
+            params.addValue("minPrice", criteria.minPrice());
+        }
+        if (criteria.maxPrice() != null) {
+            conditions.add("p.price <= :maxPrice");
+            params.addValue("maxPrice", criteria.maxPrice());
+        }
+        if (Boolean.TRUE.equals(criteria.inStockOnly())) {
+            conditions.add("p.stock > 0");
+        }
+
+        return conditions;
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return RANK + " DESC, p.id";
+        }
+
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            }
+            orders.add("p." + column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        orders.add("p.id");
+        return String.join(", ", orders);
+    }
+
+    // second phase: listing rows for the ids the ranked or keyset query chose, in that order
+    private List<ProductResponseDTO> loadInOrder(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, Integer> position = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            position.put(ids.get(i), i);
+        }
+
+        return entityManager.createQuery(LISTING_SELECT + " WHERE p.id IN :ids", ProductResponseDTO.class)
+                .setParameter("ids", ids)
+                .getResultList().stream()
+                .sorted(Comparator.comparing(product -> position.get(product.getId())))
+                .toList();
+    }
+}
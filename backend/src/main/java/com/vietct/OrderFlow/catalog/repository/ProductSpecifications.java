@@ -15,20 +15,18 @@ public final class ProductSpecifications {
     private ProductSpecifications() {
     }
 
+    /**
+     * Filters only; text is matched by {@link ProductSearchRepository#searchByText} against the full-text and
+     * trigram indexes, so criteria with text are rejected rather than silently widened.
+     */
     public static Specification<Product> build(ProductSearchCriteria criteria) {
+        if (criteria.text() != null && !criteria.text().isBlank()) {
+            throw new IllegalArgumentException("Text searches go through ProductSearchRepository.searchByText");
+        }
+
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
-            // text search in name + description (case-insensitive)
-            if (criteria.text() != null && !criteria.text().isBlank()) {
-                String pattern = "%" + criteria.text().toLowerCase() + "%";
-
-                Predicate byName = cb.like(cb.lower(root.get("name")), pattern);
-                Predicate byDescription = cb.like(cb.lower(root.get("description")), pattern);
-
-                predicates.add(cb.or(byName, byDescription));
-            }
-
             // filter by category
             UUID categoryId = criteria.categoryId();
             if (categoryId != null) {
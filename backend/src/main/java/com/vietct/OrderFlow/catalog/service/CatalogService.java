@@ -1,11 +1,15 @@
 package com.vietct.OrderFlow.catalog.service;
 
 import com.vietct.OrderFlow.catalog.domain.Product;
+import com.vietct.OrderFlow.catalog.dto.ProductResponseDTO;
 import com.vietct.OrderFlow.catalog.dto.ProductSearchCriteria;
+import com.vietct.OrderFlow.common.pagination.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface CatalogService {
 
@@ -13,5 +17,21 @@ public interface CatalogService {
 
     Page<Product> getProducts(UUID categoryId, Pageable pageable);
 
-    Page<Product> searchProducts(ProductSearchCriteria criteria, Pageable pageable);
+    /**
+     * Listing rows are projected straight from the query, with the category joined, rather than mapped from
+     * managed entities.
+     */
+    Page<ProductResponseDTO> searchProducts(ProductSearchCriteria criteria, Pageable pageable);
+
+    /**
+     * Keyset variant of {@link #searchProducts} and {@link #getProducts}: pages are addressed by the opaque
+     * cursor of the previous page instead of an offset, and no total is counted.
+     */
+    CursorPage<ProductResponseDTO> scrollProducts(ProductSearchCriteria criteria, Sort.Order order, String cursor, int size);
+
+    /**
+     * Hands every product to {@code sink} in id order from one read-only transaction, reading the listing
+     * projection through a server-side cursor.
+     */
+    void exportProducts(Consumer<ProductResponseDTO> sink);
 }
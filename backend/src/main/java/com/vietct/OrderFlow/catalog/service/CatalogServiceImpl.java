@@ -1,21 +1,32 @@
 package com.vietct.OrderFlow.catalog.service;
 
 import com.vietct.OrderFlow.catalog.domain.Product;
+import com.vietct.OrderFlow.catalog.dto.ProductResponseDTO;
 import com.vietct.OrderFlow.catalog.dto.ProductSearchCriteria;
 import com.vietct.OrderFlow.catalog.exception.CategoryNotFoundException;
 import com.vietct.OrderFlow.catalog.exception.ProductNotFoundException;
 import com.vietct.OrderFlow.catalog.repository.CategoryRepository;
 import com.vietct.OrderFlow.catalog.repository.ProductRepository;
 import com.vietct.OrderFlow.catalog.repository.ProductSpecifications;
+import com.vietct.OrderFlow.common.pagination.Cursor;
+import com.vietct.OrderFlow.common.pagination.CursorPage;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
@@ -23,15 +34,18 @@ public class CatalogServiceImpl implements CatalogService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ObjectProvider<ProductListingIndex> productListingIndex;
 
     public CatalogServiceImpl(ProductRepository productRepository,
-                              CategoryRepository categoryRepository) {
+                              CategoryRepository categoryRepository,
+                              ObjectProvider<ProductListingIndex> productListingIndex) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
+        this.productListingIndex = productListingIndex;
     }
 
     @Override
-    @Cacheable(cacheNames = "productById", key = "#id")
+    @Cacheable(cacheNames = "productById", key = "#id", sync = true)
     public Product getProductById(UUID id) {
         return productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
@@ -41,7 +55,8 @@ public class CatalogServiceImpl implements CatalogService {
     @Cacheable(
             cacheNames = "frontPageProducts",
             key = "'default'",
-            condition = "#categoryId == null && #pageable.pageNumber == 0"
+            condition = "#categoryId == null && #pageable.pageNumber == 0",
+            sync = true
     )
     public Page<Product> getProducts(UUID categoryId, Pageable pageable) {
         if (categoryId == null) {
@@ -57,9 +72,55 @@ public class CatalogServiceImpl implements CatalogService {
     }
 
     @Override
-    public Page<Product> searchProducts(ProductSearchCriteria criteria, Pageable pageable) {
+    public Page<ProductResponseDTO> searchProducts(ProductSearchCriteria criteria, Pageable pageable) {
+        ProductListingIndex listingIndex = productListingIndex.getIfAvailable();
+        Optional<Page<UUID>> indexed = listingIndex == null ? Optional.empty() : listingIndex.search(criteria, pageable);
+        if (indexed.isPresent()) {
+            return loadPage(indexed.get());
+        }
+
+        if (criteria.text() != null && !criteria.text().isBlank()) {
+            return productRepository.searchByText(criteria, pageable);
+        }
+
         Specification<Product> spec = ProductSpecifications.build(criteria);
-        return productRepository.findAll(spec, pageable);
+        return productRepository.findListings(spec, pageable);
+    }
+
+    @Override
+    public CursorPage<ProductResponseDTO> scrollProducts(ProductSearchCriteria criteria, Sort.Order order, String cursor, int size) {
+        Cursor after = cursor == null ? null : Cursor.decode(cursor).requireSort(order);
+
+        // one extra row tells whether another page exists without counting
+        List<ProductResponseDTO> fetched = productRepository.scroll(criteria, order, after, size + 1);
+
+        return CursorPage.of(fetched, size, product -> new Cursor(order.getProperty(), order.getDirection(),
+                cursorValue(product, order.getProperty()), product.getId()));
+    }
+
+    @Override
+    public void exportProducts(Consumer<ProductResponseDTO> sink) {
+        try (Stream<ProductResponseDTO> rows = productRepository.streamListings()) {
+            rows.forEach(sink);
+        }
+    }
+
+    private static String cursorValue(ProductResponseDTO product, String property) {
+        return switch (property) {
+            case "createdAt" -> product.getCreatedAt().toString();
+            case "price" -> product.getPrice().toPlainString();
+            default -> throw new IllegalArgumentException("Unsupported scroll property: " + property);
+        };
+    }
+
+    // the index resolves and counts matches; only the page itself is read, by primary key
+    private Page<ProductResponseDTO> loadPage(Page<UUID> ids) {
+        List<UUID> order = ids.getContent();
+        List<ProductResponseDTO> products = order.isEmpty() ? List.of() : productRepository.findListingsByIdIn(order)
+                .stream()
+                .sorted(Comparator.comparingInt(product -> order.indexOf(product.getId())))
+                .toList();
+        return new PageImpl<>(products, ids.getPageable(), ids.getTotalElements());
     }
 
     @Transactional
@@ -0,0 +1,100 @@
+package com.vietct.OrderFlow.catalog.service;
+
+import com.vietct.OrderFlow.catalog.domain.ProductChangedEvent;
+import com.vietct.OrderFlow.catalog.dto.ProductSearchCriteria;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Serves filtered listings from {@link CatalogService#searchProducts} out of a {@link ProductListingTable} when the
+ * {@code listing-index} profile is active. The table is loaded from {@code product} on a background thread at
+ * startup and then follows committed {@link ProductChangedEvent}s. Until the load finishes, {@link #search} returns
+ * empty and callers use the database. Text queries are not indexed and always return empty, so they are answered
+ * by {@code ProductSearchRepository#searchByText}.
+ */
+@Service
+@Profile("listing-index")
+public class ProductListingIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductListingIndex.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductListingTable index = new ProductListingTable();
+
+    // changes committed while the initial load runs, replayed on top of it in commit order
+    private final List<ProductChangedEvent> pendingChanges = new ArrayList<>();
+    private volatile boolean ready;
+
+    public ProductListingIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void startWarmup() {
+        Thread warmup = new Thread(this::load, "listing-index-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+    }
+
+    public Optional<Page<UUID>> search(ProductSearchCriteria criteria, Pageable pageable) {
+        if (!ready || (criteria.text() != null && !criteria.text().isBlank())) {
+            return Optional.empty();
+        }
+        return Optional.of(index.search(criteria, pageable));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (pendingChanges) {
+            if (!ready) {
+                pendingChanges.add(event);
+                return;
+            }
+        }
+        index.upsert(event);
+    }
+
+    void load() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            jdbcTemplate.query(
+                    "SELECT id, name, description, price, stock, category_id, created_at FROM product",
+                    rs -> {
+                        Timestamp createdAt = rs.getTimestamp("created_at");
+                        index.upsert(new ProductChangedEvent(
+                                rs.getObject("id", UUID.class),
+                                rs.getString("name"),
+                                rs.getString("description"),
+                                rs.getBigDecimal("price"),
+                                rs.getInt("stock"),
+                                rs.getObject("category_id", UUID.class),
+                                createdAt == null ? null : createdAt.toInstant(),
+                                false));
+                    });
+        } catch (RuntimeException ex) {
+            log.error("ProductListingIndex: initial load failed, listings keep using the database", ex);
+            return;
+        }
+
+        synchronized (pendingChanges) {
+            pendingChanges.forEach(index::upsert);
+            pendingChanges.clear();
+            ready = true;
+        }
+        log.info("ProductListingIndex: indexed {} products in {} ms",
+                index.size(), System.currentTimeMillis() - startedAt);
+    }
+}
@@ -0,0 +1,272 @@
+package com.vietct.OrderFlow.catalog.service;
+
+import com.vietct.OrderFlow.catalog.domain.ProductChangedEvent;
+import com.vietct.OrderFlow.catalog.dto.ProductSearchCriteria;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntToLongFunction;
+
+/**
+ * In-memory table for filtered and sorted product listings.
+ * <p>
+ * Every product version gets a new int document id. Categories and stock map to bitsets over document ids, and
+ * price, stock and creation time are kept in columns for range filters and sorting. An update retires the old
+ * document from the {@code live} bitset. Once retired documents outnumber live ones, the live ones are renumbered
+ * densely.
+ * <p>
+ * Text queries are not served: {@code ProductSearchRepository} matches them with the english stemmer and trigram
+ * similarity, which this table cannot reproduce, so they always go to the database.
+ */
+class ProductListingTable {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<UUID, Integer> docByProduct = new HashMap<>();
+    private final Map<UUID, BitSet> docsByCategory = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final BitSet inStock = new BitSet();
+
+    private UUID[] productIds = new UUID[1024];
+    private String[] names = new String[1024];
+    private long[] priceCents = new long[1024];
+    private int[] stocks = new int[1024];
+    private long[] createdAtMillis = new long[1024];
+    private int docCount;
+
+    void upsert(ProductChangedEvent product) {
+        lock.writeLock().lock();
+        try {
+            retire(product.productId());
+            if (!product.deleted()) {
+                add(product);
+            }
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Page<UUID> search(ProductSearchCriteria criteria, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            if (criteria.text() != null && !criteria.text().isBlank()) {
+                throw new IllegalArgumentException("Text queries are served by ProductSearchRepository");
+            }
+
+            BitSet matches = (BitSet) live.clone();
+            if (criteria.categoryId() != null) {
+                matches.and(docsByCategory.getOrDefault(criteria.categoryId(), new BitSet()));
+            }
+            if (Boolean.TRUE.equals(criteria.inStockOnly())) {
+                matches.and(inStock);
+            }
+            long minCents = criteria.minPrice() == null ? Long.MIN_VALUE : toCents(criteria.minPrice(), RoundingMode.CEILING);
+            long maxCents = criteria.maxPrice() == null ? Long.MAX_VALUE : toCents(criteria.maxPrice(), RoundingMode.FLOOR);
+            if (criteria.minPrice() != null || criteria.maxPrice() != null) {
+                for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                    if (priceCents[doc] < minCents || priceCents[doc] > maxCents) {
+                        matches.clear(doc);
+                    }
+                }
+            }
+
+            long total = matches.cardinality();
+            int limit = pageable.isPaged()
+                    ? (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize())
+                    : Integer.MAX_VALUE;
+            int[] ranked = topDocs(matches, pageable.getSort(), limit);
+
+            int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), ranked.length) : 0;
+            List<UUID> page = Arrays.stream(ranked, from, ranked.length)
+                    .mapToObj(doc -> productIds[doc])
+                    .toList();
+            return new PageImpl<>(page, pageable, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(ProductChangedEvent product) {
+        int doc = docCount++;
+        ensureCapacity(docCount);
+
+        productIds[doc] = product.productId();
+        names[doc] = product.name();
+        priceCents[doc] = product.price() == null ? 0 : toCents(product.price(), RoundingMode.HALF_UP);
+        stocks[doc] = product.stock() == null ? 0 : product.stock();
+        createdAtMillis[doc] = product.createdAt() == null ? 0 : product.createdAt().toEpochMilli();
+
+        docByProduct.put(product.productId(), doc);
+        live.set(doc);
+        if (stocks[doc] > 0) {
+            inStock.set(doc);
+        }
+        if (product.categoryId() != null) {
+            docsByCategory.computeIfAbsent(product.categoryId(), id -> new BitSet()).set(doc);
+        }
+    }
+
+    private void retire(UUID productId) {
+        Integer doc = docByProduct.remove(productId);
+        if (doc != null) {
+            live.clear(doc);
+            inStock.clear(doc);
+        }
+    }
+
+    private void compactIfSparse() {
+        int retired = docCount - docByProduct.size();
+        if (retired < 1024 || retired < docByProduct.size()) {
+            return;
+        }
+
+        // renumber live documents densely; new ids never exceed old ones, so arrays shift in place
+        int[] remap = new int[docCount];
+        Arrays.fill(remap, -1);
+        int next = 0;
+        for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+            remap[doc] = next;
+            productIds[next] = productIds[doc];
+            names[next] = names[doc];
+            priceCents[next] = priceCents[doc];
+            stocks[next] = stocks[doc];
+            createdAtMillis[next] = createdAtMillis[doc];
+            next++;
+        }
+        Arrays.fill(productIds, next, docCount, null);
+        Arrays.fill(names, next, docCount, null);
+        docCount = next;
+
+        docsByCategory.replaceAll((category, docs) -> remapBits(docs, remap));
+        docsByCategory.values().removeIf(BitSet::isEmpty);
+        BitSet remappedInStock = remapBits(inStock, remap);
+        inStock.clear();
+        inStock.or(remappedInStock);
+        live.clear();
+        live.set(0, docCount);
+        docByProduct.replaceAll((productId, doc) -> remap[doc]);
+    }
+
+    private static BitSet remapBits(BitSet docs, int[] remap) {
+        BitSet remapped = new BitSet();
+        for (int doc = docs.nextSetBit(0); doc >= 0; doc = docs.nextSetBit(doc + 1)) {
+            if (remap[doc] >= 0) {
+                remapped.set(remap[doc]);
+            }
+        }
+        return remapped;
+    }
+
+    // the best `limit` documents in rank order, selected with a bounded heap: O(n log k) for a page ending at k
+    private int[] topDocs(BitSet matches, Sort sort, int limit) {
+        IntToLongFunction key = sortKey(sort);
+        Comparator<Integer> order = key != null
+                ? Comparator.<Integer>comparingLong(key::applyAsLong).thenComparing(doc -> productIds[doc])
+                : comparator(sort);
+
+        PriorityQueue<Integer> top = new PriorityQueue<>(order.reversed());
+        long worstKey = Long.MAX_VALUE;
+        for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+            if (top.size() < limit) {
+                top.add(doc);
+            } else if ((key == null || key.applyAsLong(doc) <= worstKey) && order.compare(doc, top.peek()) < 0) {
+                // the primitive key rejects most documents without the boxed comparison
+                top.poll();
+                top.add(doc);
+            } else {
+                continue;
+            }
+            if (key != null) {
+                worstKey = key.applyAsLong(top.peek());
+            }
+        }
+
+        return top.stream().sorted(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * A primitive key where smaller ranks first, for the orders that fit in one long; {@code null} otherwise.
+     */
+    private IntToLongFunction sortKey(Sort sort) {
+        if (sort.isUnsorted()) {
+            return doc -> -createdAtMillis[doc];
+        }
+
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() != 1) {
+            return null;
+        }
+        Sort.Order order = orders.get(0);
+        IntToLongFunction value = switch (order.getProperty()) {
+            case "createdAt" -> doc -> createdAtMillis[doc];
+            case "price" -> doc -> priceCents[doc];
+            case "stock" -> doc -> stocks[doc];
+            default -> null;
+        };
+        if (value == null || order.isAscending()) {
+            return value;
+        }
+        return doc -> -value.applyAsLong(doc);
+    }
+
+    private Comparator<Integer> comparator(Sort sort) {
+        Comparator<Integer> order;
+        if (sort.isUnsorted()) {
+            order = Comparator.comparingLong((Integer doc) -> createdAtMillis[doc]).reversed();
+        } else {
+            order = null;
+            for (Sort.Order sortOrder : sort) {
+                Comparator<Integer> next = switch (sortOrder.getProperty()) {
+                    case "createdAt" -> Comparator.comparingLong(doc -> createdAtMillis[doc]);
+                    case "name" -> Comparator.comparing(doc -> names[doc], Comparator.nullsLast(String::compareTo));
+                    case "price" -> Comparator.comparingLong(doc -> priceCents[doc]);
+                    case "stock" -> Comparator.comparingInt(doc -> stocks[doc]);
+                    default -> throw new IllegalArgumentException("Unsupported sort property: " + sortOrder.getProperty());
+                };
+                next = sortOrder.isAscending() ? next : next.reversed();
+                order = order == null ? next : order.thenComparing(next);
+            }
+        }
+        return order.thenComparing(doc -> productIds[doc]);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= productIds.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, productIds.length * 2);
+        productIds = Arrays.copyOf(productIds, newLength);
+        names = Arrays.copyOf(names, newLength);
+        priceCents = Arrays.copyOf(priceCents, newLength);
+        stocks = Arrays.copyOf(stocks, newLength);
+        createdAtMillis = Arrays.copyOf(createdAtMillis, newLength);
+    }
+
+    private static long toCents(BigDecimal amount, RoundingMode roundingMode) {
+        return amount.movePointRight(2).setScale(0, roundingMode).longValueExact();
+    }
+}
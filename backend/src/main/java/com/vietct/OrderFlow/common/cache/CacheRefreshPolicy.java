@@ -0,0 +1,28 @@
+package com.vietct.OrderFlow.common.cache;
+
+import java.time.Duration;
+
+/**
+ * Opt-in refresh behaviour for a {@link TwoLevelCache}.
+ *
+ * @param ttl                  how long a loaded value counts as fresh
+ * @param staleWhileRevalidate how long past {@code ttl} the old value is still served while one background
+ *                             refresh runs; the Redis entry must live for {@code ttl + staleWhileRevalidate}
+ * @param earlyRefreshBeta     XFetch factor for probabilistic refresh before {@code ttl}; {@code 0} disables it
+ */
+public record CacheRefreshPolicy(Duration ttl, Duration staleWhileRevalidate, double earlyRefreshBeta) {
+
+    public Duration retention() {
+        return ttl.plus(staleWhileRevalidate);
+    }
+
+    boolean isExpired(RefreshableValue entry, long nowMillis) {
+        return nowMillis >= entry.loadedAtMillis() + retention().toMillis();
+    }
+
+    // XFetch: refresh when now - delta * beta * ln(rand) passes the expiry. Past ttl this always holds.
+    boolean shouldRefresh(RefreshableValue entry, long nowMillis, double random) {
+        double headStart = -entry.loadMillis() * earlyRefreshBeta * Math.log(random);
+        return nowMillis + headStart >= entry.loadedAtMillis() + ttl.toMillis();
+    }
+}
@@ -0,0 +1,8 @@
+package com.vietct.OrderFlow.common.cache;
+
+/**
+ * What a cache with a {@link CacheRefreshPolicy} stores in both levels: the value plus when it was loaded and
+ * how long the load took.
+ */
+public record RefreshableValue(Object value, long loadedAtMillis, long loadMillis) {
+}
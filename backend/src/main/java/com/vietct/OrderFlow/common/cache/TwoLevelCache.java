@@ -0,0 +1,232 @@
+package com.vietct.OrderFlow.common.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Clock;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A size-bounded Caffeine cache (W-TinyLFU eviction) in front of a shared Redis cache.
+ * <p>
+ * Local hits return the same instance to every caller, so cached values must be treated as read-only.
+ * Evictions are applied to both levels and broadcast so other nodes drop their local copy; the local
+ * TTL bounds staleness if a broadcast is missed.
+ * <p>
+ * With a {@link CacheRefreshPolicy}, values are stored as {@link RefreshableValue}s and {@link #get(Object, Callable)}
+ * serves a stale value while a single background refresh per key runs, optionally starting that refresh early.
+ */
+public class TwoLevelCache implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> localCache;
+    private final Cache remoteCache;
+    private final TwoLevelCacheManager cacheManager;
+    private final CacheRefreshPolicy refreshPolicy;
+    private final Executor refreshExecutor;
+    private final Clock clock;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    TwoLevelCache(String name,
+                  com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> localCache,
+                  Cache remoteCache,
+                  TwoLevelCacheManager cacheManager,
+                  CacheRefreshPolicy refreshPolicy,
+                  Executor refreshExecutor,
+                  Clock clock) {
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.cacheManager = cacheManager;
+        this.refreshPolicy = refreshPolicy;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return localCache;
+    }
+
+    public com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> getLocalCache() {
+        return localCache;
+    }
+
+    public Cache getRemoteCache() {
+        return remoteCache;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        if (refreshPolicy != null) {
+            RefreshableValue entry = lookup(key);
+            return entry == null ? null : new SimpleValueWrapper(entry.value());
+        }
+
+        String localKey = localKey(key);
+        ValueWrapper local = localCache.getIfPresent(localKey);
+        if (local != null) {
+            return local;
+        }
+
+        ValueWrapper remote = remoteCache.get(key);
+        if (remote != null) {
+            localCache.put(localKey, new SimpleValueWrapper(remote.get()));
+        }
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    // concurrent misses for one key on this node share a single Redis (or loader) call
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (refreshPolicy != null) {
+            return (T) getRefreshing(key, valueLoader).value();
+        }
+
+        ValueWrapper wrapper = localCache.get(localKey(key),
+                k -> new SimpleValueWrapper(remoteCache.get(key, valueLoader)));
+        return (T) wrapper.get();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object stored = refreshPolicy == null ? value : new RefreshableValue(value, clock.millis(), 0);
+        remoteCache.put(key, stored);
+        localCache.put(localKey(key), new SimpleValueWrapper(stored));
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        String localKey = localKey(key);
+        localCache.invalidate(localKey);
+        cacheManager.publishInvalidation(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        localCache.invalidateAll();
+        cacheManager.publishInvalidation(name, null);
+    }
+
+    void invalidateLocal(String localKey) {
+        if (localKey == null) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidate(localKey);
+        }
+    }
+
+    private RefreshableValue getRefreshing(Object key, Callable<?> valueLoader) {
+        String localKey = localKey(key);
+        RefreshableValue entry = (RefreshableValue) localCache.get(localKey,
+                k -> new SimpleValueWrapper(loadThrough(key, valueLoader))).get();
+
+        long now = clock.millis();
+        if (refreshPolicy.isExpired(entry, now)) {
+            // only reachable when L1 outlived the retention window; reload in line like a miss
+            localCache.invalidate(localKey);
+            entry = (RefreshableValue) localCache.get(localKey,
+                    k -> new SimpleValueWrapper(loadThrough(key, valueLoader))).get();
+        } else if (refreshPolicy.shouldRefresh(entry, now, 1.0 - ThreadLocalRandom.current().nextDouble())) {
+            scheduleRefresh(key, localKey, valueLoader);
+        }
+        return entry;
+    }
+
+    private RefreshableValue lookup(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper local = localCache.getIfPresent(localKey);
+        RefreshableValue entry = local != null ? (RefreshableValue) local.get() : fetchRemote(key);
+        if (entry == null || refreshPolicy.isExpired(entry, clock.millis())) {
+            return null;
+        }
+        if (local == null) {
+            localCache.put(localKey, new SimpleValueWrapper(entry));
+        }
+        return entry;
+    }
+
+    private RefreshableValue loadThrough(Object key, Callable<?> valueLoader) {
+        RefreshableValue remote = fetchRemote(key);
+        if (remote != null && !refreshPolicy.isExpired(remote, clock.millis())) {
+            return remote;
+        }
+        return load(key, valueLoader);
+    }
+
+    private RefreshableValue fetchRemote(Object key) {
+        // anything else was written without the policy, e.g. by a node still on the previous release
+        ValueWrapper remote = remoteCache.get(key);
+        return remote != null && remote.get() instanceof RefreshableValue entry ? entry : null;
+    }
+
+    private RefreshableValue load(Object key, Callable<?> valueLoader) {
+        long startedAt = clock.millis();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        long loadedAt = clock.millis();
+        RefreshableValue entry = new RefreshableValue(value, loadedAt, loadedAt - startedAt);
+        remoteCache.put(key, entry);
+        return entry;
+    }
+
+    private void scheduleRefresh(Object key, String localKey, Callable<?> valueLoader) {
+        if (!refreshing.add(localKey)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    localCache.put(localKey, new SimpleValueWrapper(load(key, valueLoader)));
+                    // other nodes re-read the fresh entry from Redis instead of refreshing it themselves
+                    cacheManager.publishInvalidation(name, localKey);
+                } catch (RuntimeException ex) {
+                    log.warn("Background refresh of cache {} key {} failed: {}", name, localKey, ex.getMessage());
+                } finally {
+                    refreshing.remove(localKey);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            refreshing.remove(localKey);
+        }
+    }
+
+    // RedisCache also keys by the string form, so both levels agree on identity
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,142 @@
+package com.vietct.OrderFlow.common.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Wraps every cache of a {@link RedisCacheManager} in a {@link TwoLevelCache} and relays evictions between
+ * nodes over the {@value #INVALIDATION_CHANNEL} pub/sub channel.
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidate";
+
+    private final RedisCacheManager redisCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final long localMaximumSize;
+    private final Duration localTtl;
+    private final Map<String, CacheRefreshPolicy> refreshPolicies;
+    private final Executor refreshExecutor;
+    private final Clock clock;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(RedisCacheManager redisCacheManager,
+                                StringRedisTemplate redisTemplate,
+                                ObjectMapper objectMapper,
+                                long localMaximumSize,
+                                Duration localTtl,
+                                Map<String, CacheRefreshPolicy> refreshPolicies,
+                                int refreshThreads,
+                                ThreadFactory refreshThreadFactory) {
+        this(redisCacheManager, redisTemplate, objectMapper, localMaximumSize, localTtl, refreshPolicies,
+                Executors.newFixedThreadPool(refreshThreads, refreshThreadFactory), Clock.systemUTC());
+    }
+
+    TwoLevelCacheManager(RedisCacheManager redisCacheManager,
+                         StringRedisTemplate redisTemplate,
+                         ObjectMapper objectMapper,
+                         long localMaximumSize,
+                         Duration localTtl,
+                         Map<String, CacheRefreshPolicy> refreshPolicies,
+                         Executor refreshExecutor,
+                         Clock clock) {
+        this.redisCacheManager = redisCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.localMaximumSize = localMaximumSize;
+        this.localTtl = localTtl;
+        this.refreshPolicies = Map.copyOf(refreshPolicies);
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache remote = redisCacheManager.getCache(cacheName);
+            if (remote == null) {
+                return null;
+            }
+            return new TwoLevelCache(cacheName, Caffeine.newBuilder()
+                    .maximumSize(localMaximumSize)
+                    .expireAfterWrite(localTtl)
+                    .recordStats()
+                    .build(), remote, this, refreshPolicies.get(cacheName), refreshExecutor, clock);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidation invalidation;
+        try {
+            invalidation = objectMapper.readValue(message.getBody(), CacheInvalidation.class);
+        } catch (IOException ex) {
+            log.warn("Ignoring malformed cache invalidation: {}", ex.getMessage());
+            return;
+        }
+
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+
+        TwoLevelCache cache = caches.get(invalidation.cacheName());
+        if (cache != null) {
+            cache.invalidateLocal(invalidation.key());
+        }
+    }
+
+    void publishInvalidation(String cacheName, String key) {
+        try {
+            String payload = objectMapper.writeValueAsString(new CacheInvalidation(nodeId, cacheName, key));
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, payload);
+        } catch (JsonProcessingException | RuntimeException ex) {
+            // other nodes fall back to the local TTL
+            log.warn("Could not broadcast invalidation for cache {} key {}: {}", cacheName, key, ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * {@code key} is null when the whole cache was cleared.
+     */
+    record CacheInvalidation(String origin, String cacheName, String key) {
+    }
+}
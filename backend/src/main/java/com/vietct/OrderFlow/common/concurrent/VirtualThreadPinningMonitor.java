@@ -0,0 +1,85 @@
+package com.vietct.OrderFlow.common.concurrent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Streams the JDK's {@code jdk.VirtualThreadPinned} events, raised when a virtual thread blocks inside a
+ * {@code synchronized} block or native frame and keeps its carrier thread. Each one is timed in
+ * {@code orderflow.threads.pinned} and logged with the first application frame, which is where to look.
+ */
+@Component
+@Profile("virtual-threads")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.vietct.OrderFlow.";
+
+    private final WorkerThreads workerThreads;
+    private final Duration threshold;
+    private final Timer pinnedTimer;
+
+    private RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(WorkerThreads workerThreads,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${orderflow.threads.pinned-threshold:PT0.02S}") Duration threshold) {
+        this.workerThreads = workerThreads;
+        this.threshold = threshold;
+        this.pinnedTimer = meterRegistry.timer("orderflow.threads.pinned");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!workerThreads.isVirtual()) {
+            log.warn("VirtualThreadPinningMonitor: virtual threads are off, they need Java 21+ and spring.threads.virtual.enabled=true");
+            return;
+        }
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::record);
+        recording.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        pinnedTimer.record(event.getDuration());
+        log.warn("VirtualThreadPinningMonitor: virtual thread pinned for {} ms at {}",
+                event.getDuration().toMillis(), pinnedAt(event.getStackTrace()));
+    }
+
+    private static String pinnedAt(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame top = stackTrace.getFrames().get(0);
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE)) {
+                top = frame;
+                break;
+            }
+        }
+        return top.getMethod().getType().getName() + "." + top.getMethod().getName() + ":" + top.getLineNumber();
+    }
+}
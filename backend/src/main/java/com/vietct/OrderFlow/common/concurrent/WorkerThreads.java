@@ -0,0 +1,43 @@
+package com.vietct.OrderFlow.common.concurrent;
+
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factories for the application's own worker pools. With {@code spring.threads.virtual.enabled=true} on
+ * Java 21+ the pools run virtual threads, like Tomcat and the scheduler; otherwise named daemon platform threads.
+ * Pool sizes keep bounding concurrency either way, so a virtual pool of four still claims four batches at a time.
+ */
+public class WorkerThreads {
+
+    private final boolean virtual;
+
+    public WorkerThreads(boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    public static WorkerThreads platform() {
+        return new WorkerThreads(false);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Threads named {@code prefix1}, {@code prefix2}, ...
+     */
+    public ThreadFactory factory(String prefix) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -6,14 +6,17 @@ import java.util.Map;
 
 import com.vietct.OrderFlow.catalog.exception.CategoryNotFoundException;
 import com.vietct.OrderFlow.catalog.exception.ProductNotFoundException;
+import com.vietct.OrderFlow.common.pagination.InvalidCursorException;
 import com.vietct.OrderFlow.inventory.exception.InsufficientStockException;
 import com.vietct.OrderFlow.inventory.exception.InventoryNotFoundException;
+import com.vietct.OrderFlow.order.exception.OrderIntakeFullException;
 import com.vietct.OrderFlow.order.exception.OrderNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -103,6 +106,24 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(body);
     }
 
+    // 400 – Cursor that was tampered with or issued for another sort
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidCursor(InvalidCursorException ex,
+                                                                HttpServletRequest request) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+
+        ApiErrorResponse body = new ApiErrorResponse(
+                Instant.now(),
+                status.value(),
+                status.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI(),
+                null
+        );
+
+        return ResponseEntity.status(status).body(body);
+    }
+
     // 2) 409 – Business conflict: insufficient stock
 
     @ExceptionHandler(InsufficientStockException.class)
@@ -122,6 +143,28 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(body);
     }
 
+    // 503 – Async order intake is at capacity, the client should back off and resubmit
+    @ExceptionHandler(OrderIntakeFullException.class)
+    public ResponseEntity<ApiErrorResponse> handleOrderIntakeFull(OrderIntakeFullException ex,
+                                                                  HttpServletRequest request) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+
+        ApiErrorResponse body = new ApiErrorResponse(
+                Instant.now(),
+                status.value(),
+                status.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI(),
+                null
+        );
+
+        log.warn("503 Order intake full at {}: {}", request.getRequestURI(), ex.getMessage());
+
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+
     // 500 – Catch-all for unexpected errors
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiErrorResponse> handleUnexpected(Exception ex,
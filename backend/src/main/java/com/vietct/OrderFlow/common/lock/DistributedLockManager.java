@@ -5,7 +5,14 @@ import java.util.Optional;
 
 public interface DistributedLockManager {
 
-    Optional<String> tryAcquireLock(String name, Duration ttl);
+    /**
+     * Takes the lock if it is free right now. {@code leaseTime} is how long the lock survives its holder dying;
+     * a live holder keeps it until {@link LockLease#close()}.
+     */
+    Optional<LockLease> tryAcquire(String name, Duration leaseTime);
 
-    void releaseLock(String name, String lockValue);
+    /**
+     * Waits up to {@code timeout} for the lock, waking up when the current holder releases it.
+     */
+    Optional<LockLease> acquire(String name, Duration leaseTime, Duration timeout) throws InterruptedException;
 }
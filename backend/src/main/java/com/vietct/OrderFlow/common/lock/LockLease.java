@@ -0,0 +1,24 @@
+package com.vietct.OrderFlow.common.lock;
+
+/**
+ * Ownership of a distributed lock. The lease is renewed in the background until it is closed, so work may outlast
+ * the lease time as long as the holder keeps running; if renewal fails, {@link #isHeld()} turns false.
+ */
+public interface LockLease extends AutoCloseable {
+
+    String name();
+
+    /**
+     * Grows with every acquisition of this lock name, so log lines of successive holders can be told apart. No store
+     * checks it yet; holders guard their writes with {@link #isHeld()}.
+     */
+    long fencingToken();
+
+    /**
+     * False once the lease was lost (taken over, or not renewed before it expired) or closed.
+     */
+    boolean isHeld();
+
+    @Override
+    void close();
+}
@@ -1,60 +1,281 @@
 package com.vietct.OrderFlow.common.lock;
 
+import com.vietct.OrderFlow.common.concurrent.WorkerThreads;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
-import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Redis locks with leases renewed by a watchdog every third of the lease time, and a fencing token per acquisition
+ * from a counter next to the lock key. Locks held by this JVM are tracked locally, so contention between its own
+ * schedulers never reaches Redis. Releases are published on {@link #RELEASE_CHANNEL}, which is what blocking
+ * {@link #acquire} waits on instead of polling.
+ */
 @Component
-public class RedisDistributedLockManager implements DistributedLockManager {
+public class RedisDistributedLockManager implements DistributedLockManager, MessageListener {
 
-    private static final String LOCK_KEY_PREFIX = "lock:";
+    public static final String RELEASE_CHANNEL = "lock:released";
+
+    private static final Logger log = LoggerFactory.getLogger(RedisDistributedLockManager.class);
+
+    private static final String LOCK_KEY_PREFIX = "lock:{";
+    // the hash tag keeps a lock and its fence counter in one cluster slot, as the acquire script needs
+    private static final String LOCK_KEY_SUFFIX = "}";
+    private static final String FENCE_KEY_SUFFIX = ":fence";
+    private static final String LOCK_ACQUIRE_COUNTER = "orderflow.lock.acquire";
+    private static final String LOCK_LOST_COUNTER = "orderflow.lock.lost";
+    // bounds the delay when a release message is missed, e.g. while the subscription is down
+    private static final long MAX_WAIT_SLICE_MS = 1000;
+
+    // returns the new fencing token, or minus the holder's remaining time in ms when the lock is taken
+    private static final String ACQUIRE_SCRIPT = """
+            if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+              return redis.call('INCR', KEYS[2])
+            end
+            local ttl = redis.call('PTTL', KEYS[1])
+            if ttl < 0 then
+              ttl = tonumber(ARGV[2])
+            end
+            return -ttl
+            """;
+
+    private static final String RENEW_SCRIPT = """
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """;
+
+    private static final String RELEASE_SCRIPT = """
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              redis.call('DEL', KEYS[1])
+              redis.call('PUBLISH', ARGV[2], ARGV[3])
+              return 1
+            end
+            return 0
+            """;
 
     private final StringRedisTemplate redisTemplate;
-    private final DefaultRedisScript<Long> unlockScript;
+    private final MeterRegistry meterRegistry;
+    private final DefaultRedisScript<Long> acquireScript;
+    private final DefaultRedisScript<Long> renewScript;
+    private final DefaultRedisScript<Long> releaseScript;
+    private final ScheduledExecutorService watchdog;
+
+    private final ConcurrentMap<String, RedisLockLease> heldLocally = new ConcurrentHashMap<>();
+    private final AtomicLong releases = new AtomicLong();
+    private final ReentrantLock releaseLock = new ReentrantLock();
+    private final Condition released = releaseLock.newCondition();
 
-    public RedisDistributedLockManager(StringRedisTemplate redisTemplate) {
+    public RedisDistributedLockManager(StringRedisTemplate redisTemplate,
+                                       MeterRegistry meterRegistry,
+                                       WorkerThreads workerThreads) {
         this.redisTemplate = redisTemplate;
-        this.unlockScript = new DefaultRedisScript<>();
-        this.unlockScript.setResultType(Long.class);
-        this.unlockScript.setScriptText(
-                "if redis.call('get', KEYS[1]) == ARGV[1] then " +
-                        "  return redis.call('del', KEYS[1]) " +
-                        "else " +
-                        "  return 0 " +
-                        "end"
-        );
+        this.meterRegistry = meterRegistry;
+        this.acquireScript = new DefaultRedisScript<>(ACQUIRE_SCRIPT, Long.class);
+        this.renewScript = new DefaultRedisScript<>(RENEW_SCRIPT, Long.class);
+        this.releaseScript = new DefaultRedisScript<>(RELEASE_SCRIPT, Long.class);
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(workerThreads.factory("lock-watchdog-"));
     }
 
     @Override
-    public Optional<String> tryAcquireLock(String name, Duration ttl) {
-        String key = lockKey(name);
+    public Optional<LockLease> tryAcquire(String name, Duration leaseTime) {
         String value = UUID.randomUUID().toString();
+        long reply = attempt(name, value, leaseTime);
+        if (reply > 0) {
+            return Optional.of(grant(name, value, reply, leaseTime));
+        }
+        meterRegistry.counter(LOCK_ACQUIRE_COUNTER, "lock", name, "result", "contended").increment();
+        return Optional.empty();
+    }
 
-        Boolean success = redisTemplate.opsForValue()
-                .setIfAbsent(key, value, ttl);
+    @Override
+    public Optional<LockLease> acquire(String name, Duration leaseTime, Duration timeout) throws InterruptedException {
+        String value = UUID.randomUUID().toString();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            // read before trying, so a release between the attempt and the wait is not missed
+            long seen = releases.get();
+            long reply = attempt(name, value, leaseTime);
+            if (reply > 0) {
+                return Optional.of(grant(name, value, reply, leaseTime));
+            }
 
-        if (Boolean.TRUE.equals(success)) {
-            return Optional.of(value);
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                meterRegistry.counter(LOCK_ACQUIRE_COUNTER, "lock", name, "result", "timeout").increment();
+                return Optional.empty();
+            }
+            long holderMillis = Math.min(Math.max(-reply, 1), MAX_WAIT_SLICE_MS);
+            awaitRelease(seen, Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(holderMillis)));
         }
-        return Optional.empty();
     }
 
+    // any release wakes every waiter; a waiter for another lock only pays one extra attempt
     @Override
-    public void releaseLock(String name, String lockValue) {
-        String key = lockKey(name);
-        redisTemplate.execute(
-                unlockScript,
-                Collections.singletonList(key),
-                lockValue
-        );
+    public void onMessage(Message message, byte[] pattern) {
+        signalRelease();
     }
 
-    private String lockKey(String name) {
-        return LOCK_KEY_PREFIX + name;
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+    }
+
+    // fencing token (> 0) when acquired, otherwise minus the holder's remaining lease in ms
+    private long attempt(String name, String value, Duration leaseTime) {
+        if (heldLocally.containsKey(name)) {
+            return -MAX_WAIT_SLICE_MS;
+        }
+        Long reply = redisTemplate.execute(acquireScript, List.of(lockKey(name), lockKey(name) + FENCE_KEY_SUFFIX),
+                value, String.valueOf(leaseTime.toMillis()));
+        return reply == null ? -MAX_WAIT_SLICE_MS : reply;
+    }
+
+    private RedisLockLease grant(String name, String value, long fencingToken, Duration leaseTime) {
+        long period = Math.max(1, leaseTime.toMillis() / 3);
+        RedisLockLease lease = new RedisLockLease(name, value, fencingToken, leaseTime.toMillis(), period);
+        heldLocally.put(name, lease);
+        lease.renewal = watchdog.scheduleAtFixedRate(lease::renew, period, period, TimeUnit.MILLISECONDS);
+        meterRegistry.counter(LOCK_ACQUIRE_COUNTER, "lock", name, "result", "acquired").increment();
+        return lease;
+    }
+
+    private void awaitRelease(long seen, long nanos) throws InterruptedException {
+        releaseLock.lock();
+        try {
+            while (releases.get() == seen && nanos > 0) {
+                nanos = released.awaitNanos(nanos);
+            }
+        } finally {
+            releaseLock.unlock();
+        }
+    }
+
+    private void signalRelease() {
+        releases.incrementAndGet();
+        releaseLock.lock();
+        try {
+            released.signalAll();
+        } finally {
+            releaseLock.unlock();
+        }
+    }
+
+    private static String lockKey(String name) {
+        return LOCK_KEY_PREFIX + name + LOCK_KEY_SUFFIX;
+    }
+
+    private final class RedisLockLease implements LockLease {
+
+        private final String name;
+        private final String value;
+        private final long fencingToken;
+        private final long leaseMillis;
+        private final long renewPeriodMillis;
+        private final AtomicBoolean held = new AtomicBoolean(true);
+
+        private volatile long expiresAtMillis;
+        private volatile ScheduledFuture<?> renewal;
+
+        private RedisLockLease(String name, String value, long fencingToken, long leaseMillis, long renewPeriodMillis) {
+            this.name = name;
+            this.value = value;
+            this.fencingToken = fencingToken;
+            this.leaseMillis = leaseMillis;
+            this.renewPeriodMillis = renewPeriodMillis;
+            this.expiresAtMillis = System.currentTimeMillis() + leaseMillis;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public long fencingToken() {
+            return fencingToken;
+        }
+
+        // the time check covers a watchdog that stalled (e.g. a long GC pause) and could not give the lease up itself
+        @Override
+        public boolean isHeld() {
+            return held.get() && System.currentTimeMillis() < expiresAtMillis;
+        }
+
+        // a failed call is retried on the next tick unless that tick would land too close to the expiry, so while Redis
+        // is unreachable the lease is given up about one renew period before another node could take the lock
+        private void renew() {
+            long startedAt = System.currentTimeMillis();
+            try {
+                Long renewed = redisTemplate.execute(renewScript, List.of(lockKey(name)), value,
+                        String.valueOf(leaseMillis));
+                if (renewed != null && renewed == 1) {
+                    expiresAtMillis = startedAt + leaseMillis;
+                } else {
+                    lose("it was taken over or had expired");
+                }
+            } catch (DataAccessException ex) {
+                if (startedAt + renewPeriodMillis >= expiresAtMillis - renewPeriodMillis / 2) {
+                    lose("Redis was unreachable until shortly before it expired: " + ex.getMessage());
+                }
+            }
+        }
+
+        private void lose(String reason) {
+            if (!held.compareAndSet(true, false)) {
+                return;
+            }
+            stopRenewing();
+            meterRegistry.counter(LOCK_LOST_COUNTER, "lock", name).increment();
+            log.warn("RedisDistributedLockManager: lost lock {} (fencing token {}) because {}", name, fencingToken, reason);
+            signalRelease();
+        }
+
+        @Override
+        public void close() {
+            if (!held.compareAndSet(true, false)) {
+                return;
+            }
+            stopRenewing();
+            try {
+                redisTemplate.execute(releaseScript, List.of(lockKey(name)), value, RELEASE_CHANNEL, name);
+            } catch (DataAccessException ex) {
+                log.warn("RedisDistributedLockManager: could not release lock {}, it expires on its own: {}",
+                        name, ex.getMessage());
+            } finally {
+                signalRelease();
+            }
+        }
+
+        private void stopRenewing() {
+            ScheduledFuture<?> scheduled = renewal;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            heldLocally.remove(name, this);
+        }
     }
 }
@@ -35,6 +35,11 @@ public abstract class BaseEntity {
         return id;
     }
 
+    // for entities whose id is handed out before they are persisted
+    protected void setId(UUID id) {
+        this.id = id;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,44 @@
+package com.vietct.OrderFlow.common.pagination;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position after the last row of a keyset page: the sort it belongs to, that row's sort value and its id.
+ * Clients only see the opaque {@link #encode()} form.
+ */
+public record Cursor(String property, Sort.Direction direction, String value, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, property, direction.name(), value, id.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 4) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+            return new Cursor(parts[0], Sort.Direction.valueOf(parts[1]), parts[2], UUID.fromString(parts[3]));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    /**
+     * Rejects a cursor issued for a different sort than the request now asks for.
+     */
+    public Cursor requireSort(Sort.Order order) {
+        if (!property.equals(order.getProperty()) || direction != order.getDirection()) {
+            throw new InvalidCursorException("Cursor was issued for sort " + property + "," + direction);
+        }
+        return this;
+    }
+}
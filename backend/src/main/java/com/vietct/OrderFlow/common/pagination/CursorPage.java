@@ -0,0 +1,26 @@
+package com.vietct.OrderFlow.common.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One keyset page: no total count, only whether another page follows and the cursor to request it with.
+ */
+public record CursorPage<T>(List<T> content, int size, boolean hasNext, String nextCursor) {
+
+    /**
+     * @param fetched  up to {@code size + 1} rows in page order; the extra row only signals that more exist
+     * @param cursorOf the cursor pointing after a given row
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int size, Function<T, Cursor> cursorOf) {
+        if (fetched.size() <= size) {
+            return new CursorPage<>(List.copyOf(fetched), size, false, null);
+        }
+        List<T> content = List.copyOf(fetched.subList(0, size));
+        return new CursorPage<>(content, size, true, cursorOf.apply(content.get(size - 1)).encode());
+    }
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(content.stream().<R>map(mapper).toList(), size, hasNext, nextCursor);
+    }
+}
@@ -0,0 +1,8 @@
+package com.vietct.OrderFlow.common.pagination;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
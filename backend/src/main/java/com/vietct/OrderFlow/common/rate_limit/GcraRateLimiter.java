@@ -0,0 +1,113 @@
+package com.vietct.OrderFlow.common.rate_limit;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Exact cluster-wide limiting with the generic cell rate algorithm: one key per identity holds the theoretical
+ * arrival time (TAT) of the next request, and a request is admitted while it is at most one window ahead of the
+ * Redis clock. That is a sliding window without a boundary burst, costs one EVALSHA per request, and the key
+ * expires on its own once the quota is full again. While Redis is unreachable the local
+ * {@link TokenBucketRateLimiter} decides instead.
+ */
+@Component
+public class GcraRateLimiter implements RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(GcraRateLimiter.class);
+
+    // microseconds stay exact in Lua doubles; returns {allowed, remaining, reset ms, retry-after ms}
+    private static final String GCRA_SCRIPT = """
+            local limit = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2]) * 1000
+            local interval = window / limit
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local tat = tonumber(redis.call('GET', KEYS[1])) or now
+            if tat < now then
+              tat = now
+            end
+            local allowAt = tat + interval - window
+            if allowAt > now then
+              return {0, 0, math.ceil((tat - now) / 1000), math.ceil((allowAt - now) / 1000)}
+            end
+            tat = tat + interval
+            redis.call('SET', KEYS[1], string.format('%.0f', tat), 'PX', math.ceil((tat - now) / 1000))
+            return {1, math.floor((window - (tat - now)) / interval), math.ceil((tat - now) / 1000), 0}
+            """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final TokenBucketRateLimiter fallback;
+    private final RateLimitProperties properties;
+    private final DefaultRedisScript<List> gcraScript;
+
+    private volatile boolean redisFailing;
+
+    public GcraRateLimiter(StringRedisTemplate redisTemplate,
+                           TokenBucketRateLimiter fallback,
+                           RateLimitProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.fallback = fallback;
+        this.properties = properties;
+        this.gcraScript = new DefaultRedisScript<>(GCRA_SCRIPT, List.class);
+    }
+
+    // EVALSHA falls back to EVAL on NOSCRIPT; loading up front keeps even the first request at one round trip
+    @PostConstruct
+    public void preloadScript() {
+        boolean used = properties.endpoints().values().stream()
+                .anyMatch(endpoint -> endpoint.algorithm() == RateLimitProperties.Algorithm.GCRA);
+        if (!used) {
+            return;
+        }
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands()
+                    .scriptLoad(GCRA_SCRIPT.getBytes(StandardCharsets.UTF_8)));
+        } catch (DataAccessException ex) {
+            log.warn("GcraRateLimiter: could not preload the script, the first call will load it: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String endpoint, RateLimitIdentity identity, RateLimitProperties.Limit limit) {
+        List<?> reply;
+        try {
+            reply = redisTemplate.execute(gcraScript, List.of(buildKey(endpoint, identity)),
+                    String.valueOf(limit.requests()), String.valueOf(limit.window().toMillis()));
+        } catch (DataAccessException ex) {
+            if (!redisFailing) {
+                redisFailing = true;
+                log.warn("GcraRateLimiter: Redis unavailable, limiting per node until it is back: {}", ex.getMessage());
+            }
+            return fallback.tryAcquire(endpoint, identity, limit);
+        }
+        redisFailing = false;
+
+        return new RateLimitDecision(
+                number(reply, 0) == 1,
+                limit.requests(),
+                number(reply, 1),
+                toSeconds(number(reply, 2)),
+                toSeconds(number(reply, 3)));
+    }
+
+    static String buildKey(String endpoint, RateLimitIdentity identity) {
+        return "rl:gcra:" + endpoint + ":" + identity.key();
+    }
+
+    private static long number(List<?> reply, int index) {
+        return ((Number) reply.get(index)).longValue();
+    }
+
+    private static long toSeconds(long millis) {
+        return (millis + 999) / 1000;
+    }
+}
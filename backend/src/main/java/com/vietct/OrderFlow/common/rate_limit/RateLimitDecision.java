@@ -0,0 +1,11 @@
+package com.vietct.OrderFlow.common.rate_limit;
+
+/**
+ * Outcome of one admission check, in the units of the {@code RateLimit-*} response headers.
+ *
+ * @param remaining         requests still admitted right after this one
+ * @param resetSeconds      seconds until the full quota is available again
+ * @param retryAfterSeconds seconds until the next request would be admitted, 0 when this one was
+ */
+public record RateLimitDecision(boolean allowed, int limit, long remaining, long resetSeconds, long retryAfterSeconds) {
+}
@@ -0,0 +1,11 @@
+package com.vietct.OrderFlow.common.rate_limit;
+
+public record RateLimitIdentity(RateLimitProperties.IdentityClass type, String value) {
+
+    /**
+     * {@code user:<id>} or {@code ip:<address>}, as used in Redis keys.
+     */
+    public String key() {
+        return type.name().toLowerCase() + ":" + value;
+    }
+}
@@ -0,0 +1,52 @@
+package com.vietct.OrderFlow.common.rate_limit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Limits per endpoint and identity class, for example
+ * {@code orderflow.ratelimit.endpoints.orders.limits.user.requests=20} with {@code ...limits.user.window=PT1M}.
+ * An identity class without a limit is not throttled on that endpoint.
+ */
+@ConfigurationProperties("orderflow.ratelimit")
+public record RateLimitProperties(Map<String, Endpoint> endpoints) {
+
+    public RateLimitProperties {
+        endpoints = endpoints == null ? Map.of() : endpoints;
+    }
+
+    /**
+     * Requests with this method whose path starts with {@code path}.
+     */
+    public record Endpoint(String method, String path, Algorithm algorithm, Map<IdentityClass, Limit> limits) {
+
+        public Endpoint {
+            algorithm = algorithm == null ? Algorithm.TOKEN_BUCKET : algorithm;
+            limits = limits == null ? Map.of() : limits;
+        }
+
+        boolean matches(HttpServletRequest request) {
+            return method.equalsIgnoreCase(request.getMethod()) && request.getRequestURI().startsWith(path);
+        }
+    }
+
+    public record Limit(int requests, Duration window) {
+    }
+
+    public enum Algorithm {
+        // local buckets reconciled with Redis in the background: no Redis hop, limit holds approximately
+        TOKEN_BUCKET,
+        // one Lua script per request: exact sliding limit cluster-wide, one Redis round trip
+        GCRA
+    }
+
+    public enum IdentityClass {
+        // callers sending X-User-Id
+        USER,
+        // everyone else, keyed by client address
+        IP
+    }
+}
@@ -0,0 +1,6 @@
+package com.vietct.OrderFlow.common.rate_limit;
+
+public interface RateLimiter {
+
+    RateLimitDecision tryAcquire(String endpoint, RateLimitIdentity identity, RateLimitProperties.Limit limit);
+}
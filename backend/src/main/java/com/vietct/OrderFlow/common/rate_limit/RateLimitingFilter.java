@@ -1,13 +1,14 @@
 package com.vietct.OrderFlow.common.rate_limit;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -16,34 +17,32 @@ import java.io.IOException;
 import java.time.Instant;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE + 10)
 public class RateLimitingFilter extends OncePerRequestFilter {
 
-    private static final int MAX_ORDERS_PER_MINUTE = 20;
-    private static final int WINDOW_SECONDS = 60;
-
-    private final StringRedisTemplate redisTemplate;
+    private final TokenBucketRateLimiter tokenBucketRateLimiter;
+    private final GcraRateLimiter gcraRateLimiter;
+    private final RateLimitProperties properties;
     private final ObjectMapper objectMapper;
-
-    public RateLimitingFilter(StringRedisTemplate redisTemplate,
-                              ObjectMapper objectMapper) {
-        this.redisTemplate = redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitingFilter(TokenBucketRateLimiter tokenBucketRateLimiter,
+                              GcraRateLimiter gcraRateLimiter,
+                              RateLimitProperties properties,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.tokenBucketRateLimiter = tokenBucketRateLimiter;
+        this.gcraRateLimiter = gcraRateLimiter;
+        this.properties = properties;
         this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        String uri = request.getRequestURI();
-        String method = request.getMethod();
-
-        if (!"POST".equalsIgnoreCase(method)) {
-            return true;
-        }
-
-        return !uri.startsWith("/orders");
+        return matchingEndpoint(request) == null;
     }
 
     @Override
@@ -52,17 +51,24 @@ public class RateLimitingFilter extends OncePerRequestFilter {
                                     FilterChain filterChain)
             throws ServletException, IOException {
 
-        String identity = resolveIdentity(request);
-        long window = System.currentTimeMillis() / (WINDOW_SECONDS * 1000L);
-        String key = buildKey(identity, window);
-
-        Long currentCount = redisTemplate.opsForValue().increment(key);
+        Map.Entry<String, RateLimitProperties.Endpoint> endpoint = matchingEndpoint(request);
+        RateLimitIdentity identity = resolveIdentity(request);
+        RateLimitProperties.Limit limit = endpoint.getValue().limits().get(identity.type());
 
-        if (currentCount != null && currentCount == 1L) {
-            redisTemplate.expire(key, WINDOW_SECONDS, TimeUnit.SECONDS);
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
         }
 
-        if (currentCount != null && currentCount > MAX_ORDERS_PER_MINUTE) {
+        RateLimiter rateLimiter = endpoint.getValue().algorithm() == RateLimitProperties.Algorithm.GCRA
+                ? gcraRateLimiter
+                : tokenBucketRateLimiter;
+        RateLimitDecision decision = rateLimiter.tryAcquire(endpoint.getKey(), identity, limit);
+        writeRateLimitHeaders(response, decision);
+
+        if (!decision.allowed()) {
+            meterRegistry.counter("orderflow.ratelimit.rejections", "endpoint", endpoint.getKey()).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
             writeRateLimitResponse(request, response);
             return;
         }
@@ -70,17 +76,28 @@ public class RateLimitingFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String resolveIdentity(HttpServletRequest request) {
+    RateLimitIdentity resolveIdentity(HttpServletRequest request) {
         String userHeader = request.getHeader("X-User-Id");
         if (userHeader != null && !userHeader.isBlank()) {
-            return "user:" + userHeader;
+            return new RateLimitIdentity(RateLimitProperties.IdentityClass.USER, userHeader);
         }
-        String ip = request.getRemoteAddr();
-        return "ip:" + ip;
+        return new RateLimitIdentity(RateLimitProperties.IdentityClass.IP, request.getRemoteAddr());
     }
 
-    private String buildKey(String identity, long window) {
-        return "rl:orders:" + identity + ":" + window;
+    // draft-ietf-httpapi-ratelimit-headers field names
+    private static void writeRateLimitHeaders(HttpServletResponse response, RateLimitDecision decision) {
+        response.setHeader("RateLimit-Limit", String.valueOf(decision.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(decision.resetSeconds()));
+    }
+
+    private Map.Entry<String, RateLimitProperties.Endpoint> matchingEndpoint(HttpServletRequest request) {
+        for (Map.Entry<String, RateLimitProperties.Endpoint> endpoint : properties.endpoints().entrySet()) {
+            if (endpoint.getValue().matches(request)) {
+                return endpoint;
+            }
+        }
+        return null;
     }
 
     private void writeRateLimitResponse(HttpServletRequest request,
@@ -0,0 +1,96 @@
+package com.vietct.OrderFlow.common.rate_limit;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free token bucket holding up to {@code requests} tokens, refilled evenly over {@code window}. Tokens taken
+ * here are counted until the next sync reports them; tokens taken on other nodes are removed through {@link #drain}.
+ * Draining may push the bucket into debt, down to {@code -requests}, so that under sustained load the nodes together
+ * admit {@code requests} per window instead of each admitting its own refill.
+ */
+final class TokenBucket {
+
+    private final String redisKeyPrefix;
+    private final RateLimitProperties.Limit limit;
+    private final double refillPerMilli;
+    private final AtomicReference<State> state;
+    private final LongAdder unsynced = new LongAdder();
+
+    private volatile long lastUsedMillis;
+
+    // sync bookkeeping, only touched by the sync thread
+    long syncedWindow = -1;
+    long syncedTotal;
+
+    TokenBucket(String redisKeyPrefix, RateLimitProperties.Limit limit, long nowMillis) {
+        this.redisKeyPrefix = redisKeyPrefix;
+        this.limit = limit;
+        this.refillPerMilli = (double) limit.requests() / limit.window().toMillis();
+        this.state = new AtomicReference<>(new State(limit.requests(), nowMillis));
+        this.lastUsedMillis = nowMillis;
+    }
+
+    boolean tryConsume(long nowMillis) {
+        lastUsedMillis = nowMillis;
+        while (true) {
+            State current = state.get();
+            double tokens = refilled(current, nowMillis);
+            if (tokens < 1) {
+                return false;
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, Math.max(current.refilledAt(), nowMillis)))) {
+                unsynced.increment();
+                return true;
+            }
+        }
+    }
+
+    void drain(long tokens, long nowMillis) {
+        while (true) {
+            State current = state.get();
+            State drained = new State(Math.max(-limit.requests(), refilled(current, nowMillis) - tokens),
+                    Math.max(current.refilledAt(), nowMillis));
+            if (state.compareAndSet(current, drained)) {
+                return;
+            }
+        }
+    }
+
+    double available(long nowMillis) {
+        return refilled(state.get(), nowMillis);
+    }
+
+    long millisUntil(double tokens, long nowMillis) {
+        double missing = tokens - available(nowMillis);
+        return missing <= 0 ? 0 : (long) Math.ceil(missing / refillPerMilli);
+    }
+
+    long takeUnsynced() {
+        return unsynced.sumThenReset();
+    }
+
+    void restoreUnsynced(long tokens) {
+        unsynced.add(tokens);
+    }
+
+    long lastUsedMillis() {
+        return lastUsedMillis;
+    }
+
+    RateLimitProperties.Limit limit() {
+        return limit;
+    }
+
+    String redisKeyPrefix() {
+        return redisKeyPrefix;
+    }
+
+    private double refilled(State current, long nowMillis) {
+        long elapsed = Math.max(0, nowMillis - current.refilledAt());
+        return Math.min(limit.requests(), current.tokens() + elapsed * refillPerMilli);
+    }
+
+    private record State(double tokens, long refilledAt) {
+    }
+}
@@ -0,0 +1,163 @@
+package com.vietct.OrderFlow.common.rate_limit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limiting without a Redis call per request. Every node admits requests from local {@link TokenBucket}s and,
+ * every {@code sync-interval-ms}, adds what it admitted to the shared per-window counters in one pipelined round
+ * trip. Whatever the other nodes admitted since the last sync is then drained from the local bucket, into debt if
+ * need be, so the cluster-wide limit holds to within one sync interval of traffic. If Redis is unreachable, nodes keep limiting
+ * locally and report the backlog once it is back.
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenBucketRateLimiter.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Clock clock;
+    private final Cache<String, TokenBucket> buckets;
+
+    private volatile boolean redisFailing;
+
+    public TokenBucketRateLimiter(StringRedisTemplate redisTemplate, long maxTrackedIdentities) {
+        this(redisTemplate, maxTrackedIdentities, Clock.systemUTC());
+    }
+
+    TokenBucketRateLimiter(StringRedisTemplate redisTemplate, long maxTrackedIdentities, Clock clock) {
+        this.redisTemplate = redisTemplate;
+        this.clock = clock;
+        // a bucket left alone for its whole window is full again, so dropping it loses nothing
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxTrackedIdentities)
+                .expireAfter(new BucketExpiry())
+                .build();
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String endpoint, RateLimitIdentity identity, RateLimitProperties.Limit limit) {
+        long now = clock.millis();
+        String prefix = "rl:" + endpoint + ":" + identity.key();
+        TokenBucket bucket = buckets.get(prefix, key -> new TokenBucket(key, limit, now));
+        boolean allowed = bucket.tryConsume(now);
+        return new RateLimitDecision(
+                allowed,
+                limit.requests(),
+                Math.max(0, (long) Math.floor(bucket.available(now))),
+                toSeconds(bucket.millisUntil(limit.requests(), now)),
+                allowed ? 0 : Math.max(1, toSeconds(bucket.millisUntil(1, now))));
+    }
+
+    @Scheduled(fixedDelayString = "${orderflow.ratelimit.sync-interval-ms:500}")
+    public void sync() {
+        long now = clock.millis();
+        List<TokenBucket> active = new ArrayList<>();
+        for (TokenBucket bucket : buckets.asMap().values()) {
+            if (now - bucket.lastUsedMillis() <= bucket.limit().window().toMillis()) {
+                active.add(bucket);
+            }
+        }
+        if (active.isEmpty()) {
+            return;
+        }
+
+        long[] windows = new long[active.size()];
+        long[] sent = new long[active.size()];
+        for (int i = 0; i < active.size(); i++) {
+            windows[i] = now / active.get(i).limit().window().toMillis();
+            sent[i] = active.get(i).takeUnsynced();
+        }
+
+        List<Object> replies;
+        try {
+            replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < active.size(); i++) {
+                    report(connection, active.get(i), windows[i], sent[i]);
+                }
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            for (int i = 0; i < active.size(); i++) {
+                active.get(i).restoreUnsynced(sent[i]);
+            }
+            if (!redisFailing) {
+                redisFailing = true;
+                log.warn("TokenBucketRateLimiter: cannot sync with Redis, limiting per node until it is back: {}",
+                        ex.getMessage());
+            }
+            return;
+        }
+        if (redisFailing) {
+            redisFailing = false;
+            log.info("TokenBucketRateLimiter: Redis sync restored");
+        }
+
+        int reply = 0;
+        for (int i = 0; i < active.size(); i++) {
+            TokenBucket bucket = active.get(i);
+            long total = ((Number) replies.get(reply++)).longValue();
+            if (sent[i] > 0) {
+                reply++; // EXPIRE
+            }
+            long seenBefore = bucket.syncedWindow == windows[i] ? bucket.syncedTotal : 0;
+            long admittedElsewhere = total - seenBefore - sent[i];
+            bucket.syncedWindow = windows[i];
+            bucket.syncedTotal = total;
+            if (admittedElsewhere > 0) {
+                bucket.drain(admittedElsewhere, now);
+            }
+        }
+    }
+
+    private static long toSeconds(long millis) {
+        return (millis + 999) / 1000;
+    }
+
+    static String buildKey(String keyPrefix, long window) {
+        return keyPrefix + ":" + window;
+    }
+
+    // INCRBY 0 still reads the count, so buckets that were idle here learn what other nodes admitted
+    private static void report(RedisConnection connection, TokenBucket bucket, long window, long sent) {
+        byte[] key = buildKey(bucket.redisKeyPrefix(), window).getBytes(StandardCharsets.UTF_8);
+        connection.stringCommands().incrBy(key, sent);
+        if (sent > 0) {
+            connection.keyCommands().expire(key, bucket.limit().window().multipliedBy(2).toSeconds());
+        }
+    }
+
+    private static final class BucketExpiry implements Expiry<String, TokenBucket> {
+
+        @Override
+        public long expireAfterCreate(String key, TokenBucket bucket, long currentTime) {
+            return idleTimeout(bucket);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenBucket bucket, long currentTime, long currentDuration) {
+            return idleTimeout(bucket);
+        }
+
+        @Override
+        public long expireAfterRead(String key, TokenBucket bucket, long currentTime, long currentDuration) {
+            return idleTimeout(bucket);
+        }
+
+        private static long idleTimeout(TokenBucket bucket) {
+            return bucket.limit().window().plus(Duration.ofSeconds(5)).toNanos();
+        }
+    }
+}
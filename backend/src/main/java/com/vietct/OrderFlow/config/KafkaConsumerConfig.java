@@ -0,0 +1,22 @@
+package com.vietct.OrderFlow.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+@Configuration
+@Profile("kafka")
+public class KafkaConsumerConfig {
+
+    // malformed records are skipped by the listeners, so what fails here is the database or broker: retry the
+    // batch until it is back instead of committing past events that were never handled
+    @Bean
+    public CommonErrorHandler kafkaErrorHandler() {
+        ExponentialBackOff backOff = new ExponentialBackOff(500, 2.0);
+        backOff.setMaxInterval(30_000);
+        return new DefaultErrorHandler(backOff);
+    }
+}
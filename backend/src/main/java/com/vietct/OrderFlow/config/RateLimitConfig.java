@@ -0,0 +1,21 @@
+package com.vietct.OrderFlow.config;
+
+import com.vietct.OrderFlow.common.rate_limit.RateLimitProperties;
+import com.vietct.OrderFlow.common.rate_limit.TokenBucketRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    // @Scheduled sync() is picked up on the bean as well
+    @Bean
+    public TokenBucketRateLimiter tokenBucketRateLimiter(StringRedisTemplate stringRedisTemplate,
+                                                         @Value("${orderflow.ratelimit.max-tracked-identities:100000}") long maxTrackedIdentities) {
+        return new TokenBucketRateLimiter(stringRedisTemplate, maxTrackedIdentities);
+    }
+}
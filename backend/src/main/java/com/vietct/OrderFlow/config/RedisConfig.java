@@ -1,14 +1,27 @@
 package com.vietct.OrderFlow.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vietct.OrderFlow.common.cache.CacheRefreshPolicy;
+import com.vietct.OrderFlow.common.cache.TwoLevelCache;
+import com.vietct.OrderFlow.common.cache.TwoLevelCacheManager;
+import com.vietct.OrderFlow.common.concurrent.WorkerThreads;
+import com.vietct.OrderFlow.common.lock.RedisDistributedLockManager;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
@@ -30,7 +43,56 @@ public class RedisConfig {
     }
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             ObjectMapper objectMapper,
+                                             @Value("${orderflow.cache.local.maximum-size:10000}") long localMaximumSize,
+                                             @Value("${orderflow.cache.local.ttl:PT10S}") Duration localTtl,
+                                             @Value("${orderflow.cache.front-page.stale-while-revalidate:PT30S}") Duration frontPageStaleWindow,
+                                             @Value("${orderflow.cache.front-page.early-refresh-beta:1.0}") double frontPageBeta,
+                                             @Value("${orderflow.cache.refresh-threads:2}") int refreshThreads,
+                                             WorkerThreads workerThreads) {
+        // opt-in per cache name; caches without a policy keep plain TTL expiry
+        Map<String, CacheRefreshPolicy> refreshPolicies = Map.of(
+                "frontPageProducts",
+                new CacheRefreshPolicy(Duration.ofSeconds(30), frontPageStaleWindow, frontPageBeta));
+
+        return new TwoLevelCacheManager(redisCacheManager(connectionFactory, refreshPolicies), stringRedisTemplate,
+                objectMapper, localMaximumSize, localTtl, refreshPolicies, refreshThreads,
+                workerThreads.factory("cache-refresh-"));
+    }
+
+    // L1 and L2 hit/miss counts, told apart by the tier tag
+    @Bean
+    public CacheMeterBinderProvider<TwoLevelCache> twoLevelCacheMeterBinderProvider() {
+        return (cache, tags) -> registry -> {
+            new CaffeineCacheMetrics<>(cache.getLocalCache(), cache.getName(), Tags.of(tags).and("tier", "l1"))
+                    .bindTo(registry);
+            new RedisCacheMetrics((RedisCache) cache.getRemoteCache(), Tags.of(tags).and("tier", "l2"))
+                    .bindTo(registry);
+        };
+    }
+
+    // one subscriber connection for every channel; RedisSubscriptionStarter starts it once Redis is reachable
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       TwoLevelCacheManager cacheManager,
+                                                                       RedisDistributedLockManager lockManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            // a failed subscribe must not fail context startup
+            @Override
+            public boolean isAutoStartup() {
+                return false;
+            }
+        };
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL));
+        container.addMessageListener(lockManager, new ChannelTopic(RedisDistributedLockManager.RELEASE_CHANNEL));
+        return container;
+    }
+
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                                Map<String, CacheRefreshPolicy> refreshPolicies) {
         GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
 
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
@@ -45,10 +107,19 @@ public class RedisConfig {
         cacheConfigs.put("frontPageProducts",
                 defaultConfig.entryTtl(Duration.ofSeconds(30)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        // Redis has to keep refreshable entries through their stale window
+        refreshPolicies.forEach((name, policy) ->
+                cacheConfigs.put(name, defaultConfig.entryTtl(policy.retention())));
+
+        RedisCacheManager cacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigs)
+                // feeds the cache.gets{result=hit|miss} meters actuator binds per cache
+                .enableStatistics()
                 .build();
+        // not a bean of its own, so initialize the configured caches here
+        cacheManager.afterPropertiesSet();
+        return cacheManager;
     }
 
     @Bean
@@ -0,0 +1,45 @@
+package com.vietct.OrderFlow.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts the shared {@link RedisMessageListenerContainer} on a timer rather than at context startup, so the
+ * application still boots while Redis is unreachable. Until it succeeds, local cache entries only expire through
+ * their TTL and lock waiters re-check the lock at least once a second.
+ */
+@Component
+public class RedisSubscriptionStarter {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisSubscriptionStarter.class);
+
+    private final RedisMessageListenerContainer container;
+    private boolean lastAttemptFailed;
+
+    public RedisSubscriptionStarter(RedisMessageListenerContainer container) {
+        this.container = container;
+    }
+
+    @Scheduled(fixedDelayString = "${orderflow.redis.subscribe-retry-ms:10000}")
+    public void ensureSubscribed() {
+        if (container.isRunning()) {
+            return;
+        }
+
+        try {
+            container.start();
+            lastAttemptFailed = false;
+            log.info("RedisSubscriptionStarter: listening for cache invalidations and lock releases");
+        } catch (RuntimeException ex) {
+            container.stop();
+            if (!lastAttemptFailed) {
+                log.warn("RedisSubscriptionStarter: cannot subscribe yet, local cache entries rely on TTL and "
+                        + "lock waiters fall back to polling: {}", ex.getMessage());
+            }
+            lastAttemptFailed = true;
+        }
+    }
+}
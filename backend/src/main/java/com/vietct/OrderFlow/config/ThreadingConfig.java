@@ -0,0 +1,17 @@
+package com.vietct.OrderFlow.config;
+
+import com.vietct.OrderFlow.common.concurrent.WorkerThreads;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class ThreadingConfig {
+
+    // same switch Spring Boot uses for Tomcat, @Async and @Scheduled: the property plus a Java 21+ runtime
+    @Bean
+    public WorkerThreads workerThreads(Environment environment) {
+        return new WorkerThreads(Threading.VIRTUAL.isActive(environment));
+    }
+}
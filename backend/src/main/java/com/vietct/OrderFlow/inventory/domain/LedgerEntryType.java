@@ -0,0 +1,6 @@
+package com.vietct.OrderFlow.inventory.domain;
+
+public enum LedgerEntryType {
+    CLAIM,
+    CONSUME
+}
@@ -0,0 +1,84 @@
+package com.vietct.OrderFlow.inventory.domain;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "inventory_ledger_journal")
+public class LedgerJournalEntry implements Persistable<UUID> {
+
+    @Id
+    @Column(name = "id", nullable = false)
+    private UUID id;
+
+    @Column(name = "node_id", nullable = false, length = 64)
+    private String nodeId;
+
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 16)
+    private LedgerEntryType entryType;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // journal rows are insert-only; skip the SELECT that merge() would issue for an assigned id
+    @Transient
+    private boolean isNew = true;
+
+    public LedgerJournalEntry() {
+    }
+
+    public LedgerJournalEntry(String nodeId, UUID productId, LedgerEntryType entryType, int quantity) {
+        this.id = UUID.randomUUID();
+        this.nodeId = nodeId;
+        this.productId = productId;
+        this.entryType = entryType;
+        this.quantity = quantity;
+        this.createdAt = Instant.now();
+    }
+
+    @Override
+    public UUID getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public LedgerEntryType getEntryType() {
+        return entryType;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -3,10 +3,14 @@ package com.vietct.OrderFlow.inventory.repository;
 import com.vietct.OrderFlow.inventory.domain.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface InventoryRepository extends JpaRepository<Inventory, UUID> {
+public interface InventoryRepository extends JpaRepository<Inventory, UUID>, InventoryReservationRepository {
 
     Optional<Inventory> findByProductId(UUID productId);
+
+    List<Inventory> findByProductIdIn(Collection<UUID> productIds);
 }
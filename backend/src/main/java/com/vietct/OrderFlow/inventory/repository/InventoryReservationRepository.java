@@ -0,0 +1,26 @@
+package com.vietct.OrderFlow.inventory.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface InventoryReservationRepository {
+
+    /**
+     * Decrements {@code available_quantity} for every product in one conditional statement.
+     * A row is only touched when it still holds at least the requested quantity.
+     *
+     * @return ids of the products whose stock was decremented
+     */
+    List<UUID> decrementAvailableQuantities(Map<UUID, Integer> quantitiesByProductId);
+
+    /**
+     * Takes up to {@code maxQuantity} units out of the product's row, locking it until the transaction ends.
+     *
+     * @return the number of units taken (possibly 0), or empty when the product has no inventory row
+     */
+    Optional<Integer> claimAvailableQuantity(UUID productId, int maxQuantity);
+
+    void incrementAvailableQuantities(Map<UUID, Integer> quantitiesByProductId);
+}
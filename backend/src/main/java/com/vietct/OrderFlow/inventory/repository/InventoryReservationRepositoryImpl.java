@@ -0,0 +1,84 @@
+package com.vietct.OrderFlow.inventory.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+public class InventoryReservationRepositoryImpl implements InventoryReservationRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryReservationRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<UUID> decrementAvailableQuantities(Map<UUID, Integer> quantitiesByProductId) {
+        if (quantitiesByProductId.isEmpty()) {
+            return List.of();
+        }
+
+        List<Object> args = new ArrayList<>(quantitiesByProductId.size() * 2);
+        String sql = "UPDATE inventory AS i " +
+                "SET available_quantity = i.available_quantity - v.quantity, " +
+                "    version = i.version + 1, " +
+                "    updated_at = CURRENT_TIMESTAMP " +
+                "FROM (VALUES " + quantityValues(quantitiesByProductId, args) + ") AS v(product_id, quantity) " +
+                "WHERE i.product_id = v.product_id " +
+                "  AND i.available_quantity >= v.quantity " +
+                "RETURNING i.product_id";
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getObject(1, UUID.class), args.toArray());
+    }
+
+    @Override
+    public Optional<Integer> claimAvailableQuantity(UUID productId, int maxQuantity) {
+        String sql = "WITH claimed AS ( " +
+                "    SELECT id, LEAST(available_quantity, ?) AS quantity " +
+                "    FROM inventory WHERE product_id = ? FOR UPDATE " +
+                ") " +
+                "UPDATE inventory AS i " +
+                "SET available_quantity = i.available_quantity - c.quantity, " +
+                "    version = i.version + 1, " +
+                "    updated_at = CURRENT_TIMESTAMP " +
+                "FROM claimed c " +
+                "WHERE i.id = c.id " +
+                "RETURNING c.quantity";
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getInt(1), maxQuantity, productId)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public void incrementAvailableQuantities(Map<UUID, Integer> quantitiesByProductId) {
+        if (quantitiesByProductId.isEmpty()) {
+            return;
+        }
+
+        List<Object> args = new ArrayList<>(quantitiesByProductId.size() * 2);
+        String sql = "UPDATE inventory AS i " +
+                "SET available_quantity = i.available_quantity + v.quantity, " +
+                "    version = i.version + 1, " +
+                "    updated_at = CURRENT_TIMESTAMP " +
+                "FROM (VALUES " + quantityValues(quantitiesByProductId, args) + ") AS v(product_id, quantity) " +
+                "WHERE i.product_id = v.product_id";
+
+        jdbcTemplate.update(sql, args.toArray());
+    }
+
+    private static String quantityValues(Map<UUID, Integer> quantitiesByProductId, List<Object> args) {
+        StringJoiner values = new StringJoiner(", ");
+        quantitiesByProductId.forEach((productId, quantity) -> {
+            values.add("(CAST(? AS uuid), CAST(? AS integer))");
+            args.add(productId);
+            args.add(quantity);
+        });
+        return values.toString();
+    }
+}
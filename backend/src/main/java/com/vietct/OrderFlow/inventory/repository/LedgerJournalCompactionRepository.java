@@ -0,0 +1,13 @@
+package com.vietct.OrderFlow.inventory.repository;
+
+import java.util.Map;
+import java.util.UUID;
+
+public interface LedgerJournalCompactionRepository {
+
+    /**
+     * Deletes every journal row of the node and returns what they added up to per product
+     * (claimed minus consumed). Rows committed concurrently are either deleted and counted, or left alone.
+     */
+    Map<UUID, Long> drainBalances(String nodeId);
+}
@@ -0,0 +1,36 @@
+package com.vietct.OrderFlow.inventory.repository;
+
+import com.vietct.OrderFlow.inventory.domain.LedgerEntryType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public class LedgerJournalCompactionRepositoryImpl implements LedgerJournalCompactionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LedgerJournalCompactionRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Map<UUID, Long> drainBalances(String nodeId) {
+        Map<UUID, Long> balances = new HashMap<>();
+
+        jdbcTemplate.query(
+                "DELETE FROM inventory_ledger_journal WHERE node_id = ? " +
+                        "RETURNING product_id, entry_type, quantity",
+                rs -> {
+                    UUID productId = rs.getObject("product_id", UUID.class);
+                    long quantity = rs.getLong("quantity");
+                    boolean claim = LedgerEntryType.CLAIM.name().equals(rs.getString("entry_type"));
+                    balances.merge(productId, claim ? quantity : -quantity, Long::sum);
+                },
+                nodeId
+        );
+
+        return balances;
+    }
+}
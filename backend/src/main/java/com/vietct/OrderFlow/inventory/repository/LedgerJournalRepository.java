@@ -0,0 +1,9 @@
+package com.vietct.OrderFlow.inventory.repository;
+
+import com.vietct.OrderFlow.inventory.domain.LedgerJournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface LedgerJournalRepository extends JpaRepository<LedgerJournalEntry, UUID>, LedgerJournalCompactionRepository {
+}
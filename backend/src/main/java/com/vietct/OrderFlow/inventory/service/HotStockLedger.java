@@ -0,0 +1,249 @@
+package com.vietct.OrderFlow.inventory.service;
+
+import com.vietct.OrderFlow.inventory.domain.LedgerEntryType;
+import com.vietct.OrderFlow.inventory.domain.LedgerJournalEntry;
+import com.vietct.OrderFlow.inventory.exception.InsufficientStockException;
+import com.vietct.OrderFlow.inventory.exception.InventoryNotFoundException;
+import com.vietct.OrderFlow.inventory.repository.InventoryRepository;
+import com.vietct.OrderFlow.inventory.repository.LedgerJournalRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory stock for hot products.
+ * <p>
+ * The node claims stock from the {@code inventory} row in chunks of {@code claim-size} and sells it from
+ * {@link StripedStockCounter}s, so most checkouts never touch the row. Every claim and sale is journaled in
+ * {@code inventory_ledger_journal} inside the order transaction; after a crash the unsold balance is handed back
+ * to {@code inventory} on startup. Surplus above one chunk is returned to the row in periodic batches.
+ * The ledger is only active in {@link StockReservationMode#LEDGER}; there {@code node-id} is required and must be
+ * unique per running instance, because {@link #recover()} hands back every balance journaled under it.
+ */
+@Component
+public class HotStockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(HotStockLedger.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final LedgerJournalRepository ledgerJournalRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final String nodeId;
+    private final Set<UUID> hotProductIds;
+    private final int stripeCount;
+    private final int claimSize;
+
+    private final Map<UUID, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    private final AtomicBoolean journalDirty = new AtomicBoolean();
+
+    public HotStockLedger(InventoryRepository inventoryRepository,
+                          LedgerJournalRepository ledgerJournalRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${orderflow.inventory.reservation.mode:ATOMIC}") StockReservationMode mode,
+                          @Value("${orderflow.inventory.ledger.node-id:}") String nodeId,
+                          @Value("${orderflow.inventory.ledger.hot-product-ids:}") List<UUID> hotProductIds,
+                          @Value("${orderflow.inventory.ledger.stripes:8}") int stripeCount,
+                          @Value("${orderflow.inventory.ledger.claim-size:100}") int claimSize) {
+        this.inventoryRepository = inventoryRepository;
+        this.ledgerJournalRepository = ledgerJournalRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = mode == StockReservationMode.LEDGER;
+        if (enabled && nodeId.isBlank()) {
+            // a shared or guessed id would let one node's recover() drain the journal of another, live node
+            throw new IllegalStateException(
+                    "orderflow.inventory.ledger.node-id must be set to an id unique to this instance in LEDGER mode");
+        }
+        this.nodeId = nodeId;
+        this.hotProductIds = Set.copyOf(hotProductIds);
+        this.stripeCount = stripeCount;
+        this.claimSize = claimSize;
+    }
+
+    public boolean isHot(UUID productId) {
+        return hotProductIds.contains(productId);
+    }
+
+    /**
+     * Reserves the hot lines of the cart inside the caller's transaction.
+     *
+     * @return the lines that are not hot and still need a regular reservation
+     */
+    public Map<UUID, Integer> reserve(Map<UUID, Integer> quantitiesByProductId) {
+        if (hotProductIds.isEmpty()) {
+            return quantitiesByProductId;
+        }
+        if (!enabled) {
+            throw new IllegalStateException("Hot stock reservations require orderflow.inventory.reservation.mode=LEDGER");
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Hot stock reservations must run inside a transaction");
+        }
+
+        Map<UUID, Integer> remaining = new LinkedHashMap<>();
+        quantitiesByProductId.forEach((productId, quantity) -> {
+            if (isHot(productId)) {
+                reserveHot(productId, quantity);
+            } else {
+                remaining.put(productId, quantity);
+            }
+        });
+        return remaining;
+    }
+
+    private void reserveHot(UUID productId, int quantity) {
+        StripedStockCounter counter = counters.computeIfAbsent(productId, id -> new StripedStockCounter(stripeCount));
+
+        if (counter.tryAcquire(quantity)) {
+            ledgerJournalRepository.save(new LedgerJournalEntry(nodeId, productId, LedgerEntryType.CONSUME, quantity));
+            journalDirty.set(true);
+            afterCompletion(committed -> {
+                if (!committed) {
+                    counter.add(quantity);
+                }
+            });
+            return;
+        }
+
+        // miss: pool what is left locally with a fresh chunk from the inventory row
+        long local = counter.takeUpTo(Long.MAX_VALUE);
+        int claimed;
+        try {
+            claimed = inventoryRepository.claimAvailableQuantity(productId, (int) Math.max(claimSize, quantity - local))
+                    .orElseThrow(() -> new InventoryNotFoundException(productId));
+        } catch (RuntimeException ex) {
+            counter.add(local);
+            throw ex;
+        }
+
+        long available = local + claimed;
+        if (available < quantity) {
+            // the claim is undone by the rollback this exception triggers
+            counter.add(local);
+            throw new InsufficientStockException(productId);
+        }
+
+        if (claimed > 0) {
+            ledgerJournalRepository.save(new LedgerJournalEntry(nodeId, productId, LedgerEntryType.CLAIM, claimed));
+        }
+        ledgerJournalRepository.save(new LedgerJournalEntry(nodeId, productId, LedgerEntryType.CONSUME, quantity));
+        journalDirty.set(true);
+
+        long surplus = available - quantity;
+        afterCompletion(committed -> counter.add(committed ? surplus : local));
+
+        log.debug("Hot stock refill for product {}: claimed={} local={} surplus={}", productId, claimed, local, surplus);
+    }
+
+    @Scheduled(fixedDelayString = "${orderflow.inventory.ledger.flush-interval-ms:5000}")
+    public void flush() {
+        releaseAbove(claimSize);
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        releaseAbove(0);
+    }
+
+    // Returns in-memory stock above `keep` to the inventory rows and compacts the journal, in one transaction
+    private void releaseAbove(long keep) {
+        Map<UUID, Integer> released = new LinkedHashMap<>();
+        counters.forEach((productId, counter) -> {
+            long excess = counter.total() - keep;
+            if (excess > 0) {
+                long taken = counter.takeUpTo(excess);
+                if (taken > 0) {
+                    released.put(productId, (int) taken);
+                }
+            }
+        });
+
+        if (released.isEmpty() && !journalDirty.getAndSet(false)) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                inventoryRepository.incrementAvailableQuantities(released);
+                compactJournal(released);
+            });
+            if (!released.isEmpty()) {
+                log.info("HotStockLedger: returned {} to inventory", released);
+            }
+        } catch (RuntimeException ex) {
+            released.forEach((productId, quantity) -> counters.get(productId).add(quantity));
+            journalDirty.set(true);
+            log.error("HotStockLedger: failed to flush: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private void compactJournal(Map<UUID, Integer> released) {
+        Map<UUID, Long> balances = ledgerJournalRepository.drainBalances(nodeId);
+        released.forEach((productId, quantity) -> balances.merge(productId, (long) -quantity, Long::sum));
+
+        List<LedgerJournalEntry> summary = new ArrayList<>();
+        balances.forEach((productId, balance) -> {
+            if (balance > 0) {
+                summary.add(new LedgerJournalEntry(nodeId, productId, LedgerEntryType.CLAIM, Math.toIntExact(balance)));
+            } else if (balance < 0) {
+                log.error("HotStockLedger: negative journal balance {} for product {} on node {}", balance, productId, nodeId);
+            }
+        });
+        ledgerJournalRepository.saveAll(summary);
+    }
+
+    // Stock a previous run of this node still held when it stopped goes back to the inventory rows
+    @PostConstruct
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<UUID, Integer> unsold = new LinkedHashMap<>();
+            ledgerJournalRepository.drainBalances(nodeId).forEach((productId, balance) -> {
+                if (balance > 0) {
+                    unsold.put(productId, Math.toIntExact(balance));
+                }
+            });
+
+            inventoryRepository.incrementAvailableQuantities(unsold);
+
+            if (!unsold.isEmpty()) {
+                log.info("HotStockLedger: node {} recovered unsold stock {}", nodeId, unsold);
+            }
+        });
+    }
+
+    private static void afterCompletion(CompletionCallback callback) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.onCompletion(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface CompletionCallback {
+        void onCompletion(boolean committed);
+    }
+}
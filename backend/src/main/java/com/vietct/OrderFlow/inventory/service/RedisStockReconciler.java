@@ -0,0 +1,115 @@
+package com.vietct.OrderFlow.inventory.service;
+
+import com.vietct.OrderFlow.common.lock.DistributedLockManager;
+import com.vietct.OrderFlow.common.lock.LockLease;
+import com.vietct.OrderFlow.inventory.repository.InventoryRepository;
+import com.vietct.OrderFlow.order.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+@Component
+@Profile("redis-stock")
+public class RedisStockReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisStockReconciler.class);
+
+    private static final String RECONCILER_LOCK_NAME = "stock:reconciler";
+    private static final Duration RECONCILER_LOCK_LEASE = Duration.ofSeconds(30);
+    private static final int EXPIRED_HOLDS_BATCH_SIZE = 500;
+
+    private final RedisStockReservationService reservationService;
+    private final InventoryRepository inventoryRepository;
+    private final OrderRepository orderRepository;
+    private final DistributedLockManager lockManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter deadLetteredCounter;
+
+    public RedisStockReconciler(RedisStockReservationService reservationService,
+                                InventoryRepository inventoryRepository,
+                                OrderRepository orderRepository,
+                                DistributedLockManager lockManager,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.reservationService = reservationService;
+        this.inventoryRepository = inventoryRepository;
+        this.orderRepository = orderRepository;
+        this.lockManager = lockManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deadLetteredCounter = meterRegistry.counter("orderflow.stock.settlement.dead_lettered");
+    }
+
+    @Scheduled(fixedDelayString = "${orderflow.inventory.redis.reconcile-interval-ms:5000}")
+    public void reconcile() {
+        Optional<LockLease> lease = lockManager.tryAcquire(RECONCILER_LOCK_NAME, RECONCILER_LOCK_LEASE);
+        if (lease.isEmpty()) {
+            return;
+        }
+
+        try (LockLease ignored = lease.get()) {
+            settleExpiredHolds();
+            applySettlement();
+        }
+    }
+
+    // An expired hold whose order committed lost its confirm (e.g. the node died right after commit)
+    private void settleExpiredHolds() {
+        Set<String> expired = reservationService.findExpiredHolds(EXPIRED_HOLDS_BATCH_SIZE);
+        if (expired == null || expired.isEmpty()) {
+            return;
+        }
+
+        int confirmed = 0;
+        int released = 0;
+        for (String holdId : expired) {
+            UUID orderId = UUID.fromString(holdId);
+            if (orderRepository.existsById(orderId)) {
+                confirmed += reservationService.confirm(orderId) ? 1 : 0;
+            } else {
+                released += reservationService.release(orderId) ? 1 : 0;
+            }
+        }
+
+        log.info("RedisStockReconciler: expired holds confirmed={} released={}", confirmed, released);
+    }
+
+    // Committing before deleting the batch means a crash in between re-applies it, which errs toward under-selling
+    private void applySettlement() {
+        Map<UUID, Integer> settlement = reservationService.claimSettlement();
+        if (settlement.isEmpty()) {
+            return;
+        }
+
+        List<UUID> applied = transactionTemplate.execute(status ->
+                inventoryRepository.decrementAvailableQuantities(settlement));
+
+        Set<UUID> rejected = new HashSet<>(settlement.keySet());
+        if (applied != null) {
+            applied.forEach(rejected::remove);
+        }
+        reservationService.completeSettlement(rejected);
+
+        if (!rejected.isEmpty()) {
+            // the row was changed outside the Redis path; retrying would fail the same way, so park it for an operator
+            deadLetteredCounter.increment(rejected.size());
+            log.error("RedisStockReconciler: settled quantities exceeded inventory.available_quantity for {}, "
+                    + "parked in {}", rejected, RedisStockReservationService.SETTLE_DEAD_LETTER_KEY);
+        }
+
+        log.info("RedisStockReconciler: applied {} settled products to inventory", settlement.size() - rejected.size());
+    }
+}
@@ -0,0 +1,309 @@
+package com.vietct.OrderFlow.inventory.service;
+
+import com.vietct.OrderFlow.inventory.domain.Inventory;
+import com.vietct.OrderFlow.inventory.exception.InsufficientStockException;
+import com.vietct.OrderFlow.inventory.exception.InventoryNotFoundException;
+import com.vietct.OrderFlow.inventory.repository.InventoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Holds stock in Redis so checkout never waits on an {@code inventory} row lock.
+ * <p>
+ * One Lua script checks and decrements every cart line and records a hold keyed by the order id.
+ * The hold is confirmed after the order commits and released after a rollback; holds that are still open
+ * after {@code hold-ttl} are settled by {@link RedisStockReconciler}. Confirmed quantities are applied to
+ * {@code inventory.available_quantity} in batches. Redis is the source of truth for held products, so it
+ * should run with persistence enabled. All keys share the {@code {stock}} hash tag to stay in one cluster slot.
+ */
+@Service
+@Profile("redis-stock")
+public class RedisStockReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisStockReservationService.class);
+
+    static final String HOLDS_KEY = "{stock}:holds";
+    static final String SETTLE_KEY = "{stock}:settle";
+    static final String SETTLE_IN_FLIGHT_KEY = "{stock}:settle:in-flight";
+    static final String SETTLE_DEAD_LETTER_KEY = "{stock}:settle:dead-letter";
+
+    private static final String AVAILABLE_KEY_PREFIX = "{stock}:available:";
+    private static final String HOLD_KEY_PREFIX = "{stock}:hold:";
+    private static final Duration HOLD_RETENTION = Duration.ofDays(1);
+
+    private static final String RESERVE_SCRIPT = """
+            local lines = #KEYS - 2
+            for i = 1, lines do
+              local available = redis.call('GET', KEYS[i + 2])
+              if not available then
+                return -i
+              end
+              if tonumber(available) < tonumber(ARGV[3 + 2 * i]) then
+                return i
+              end
+            end
+            for i = 1, lines do
+              redis.call('DECRBY', KEYS[i + 2], ARGV[3 + 2 * i])
+              redis.call('HSET', KEYS[2], ARGV[2 + 2 * i], ARGV[3 + 2 * i])
+            end
+            redis.call('PEXPIRE', KEYS[2], ARGV[3])
+            redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+            return 0
+            """;
+
+    private static final String CONFIRM_SCRIPT = """
+            if redis.call('ZREM', KEYS[1], ARGV[1]) == 0 then
+              return 0
+            end
+            local hold = redis.call('HGETALL', KEYS[2])
+            for i = 1, #hold, 2 do
+              redis.call('HINCRBY', KEYS[3], hold[i], hold[i + 1])
+            end
+            redis.call('DEL', KEYS[2])
+            return 1
+            """;
+
+    // KEYS[3..] are the available keys of the products ARGV[2..] the caller read from the hold; -1 if they differ
+    private static final String RELEASE_SCRIPT = """
+            if not redis.call('ZSCORE', KEYS[1], ARGV[1]) then
+              return 0
+            end
+            local lines = #KEYS - 2
+            if redis.call('HLEN', KEYS[2]) ~= lines then
+              return -1
+            end
+            local quantities = {}
+            for i = 1, lines do
+              quantities[i] = redis.call('HGET', KEYS[2], ARGV[i + 1])
+              if not quantities[i] then
+                return -1
+              end
+            end
+            redis.call('ZREM', KEYS[1], ARGV[1])
+            for i = 1, lines do
+              redis.call('INCRBY', KEYS[i + 2], quantities[i])
+            end
+            redis.call('DEL', KEYS[2])
+            return 1
+            """;
+
+    // Resumes a batch a previous run claimed but did not finish, otherwise claims the pending one; 0 if there is none
+    private static final String CLAIM_SETTLEMENT_SCRIPT = """
+            if redis.call('EXISTS', KEYS[2]) == 1 then
+              return 1
+            end
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+              return 0
+            end
+            redis.call('RENAME', KEYS[1], KEYS[2])
+            return 1
+            """;
+
+    // Parks the rejected entries of the claimed batch before dropping it, so nothing settled is lost
+    private static final String COMPLETE_SETTLEMENT_SCRIPT = """
+            for i = 1, #ARGV do
+              local quantity = redis.call('HGET', KEYS[1], ARGV[i])
+              if quantity then
+                redis.call('HINCRBY', KEYS[2], ARGV[i], quantity)
+              end
+            end
+            redis.call('DEL', KEYS[1])
+            return #ARGV
+            """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final InventoryRepository inventoryRepository;
+    private final Duration holdTtl;
+
+    private final DefaultRedisScript<Long> reserveScript;
+    private final DefaultRedisScript<Long> confirmScript;
+    private final DefaultRedisScript<Long> releaseScript;
+    private final DefaultRedisScript<Long> claimSettlementScript;
+    private final DefaultRedisScript<Long> completeSettlementScript;
+
+    public RedisStockReservationService(StringRedisTemplate redisTemplate,
+                                        InventoryRepository inventoryRepository,
+                                        @Value("${orderflow.inventory.redis.hold-ttl:PT5M}") Duration holdTtl) {
+        this.redisTemplate = redisTemplate;
+        this.inventoryRepository = inventoryRepository;
+        this.holdTtl = holdTtl;
+        this.reserveScript = new DefaultRedisScript<>(RESERVE_SCRIPT, Long.class);
+        this.confirmScript = new DefaultRedisScript<>(CONFIRM_SCRIPT, Long.class);
+        this.releaseScript = new DefaultRedisScript<>(RELEASE_SCRIPT, Long.class);
+        this.claimSettlementScript = new DefaultRedisScript<>(CLAIM_SETTLEMENT_SCRIPT, Long.class);
+        this.completeSettlementScript = new DefaultRedisScript<>(COMPLETE_SETTLEMENT_SCRIPT, Long.class);
+    }
+
+    /**
+     * Holds the stock and ties the hold to the caller's transaction: confirmed on commit, released on rollback.
+     */
+    public void reserve(UUID orderId, Map<UUID, Integer> quantitiesByProductId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Redis stock reservations must run inside a transaction");
+        }
+
+        hold(orderId, quantitiesByProductId);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        confirm(orderId);
+                    } else {
+                        release(orderId);
+                    }
+                } catch (RuntimeException ex) {
+                    // the hold expires and the reconciler settles it against the orders table
+                    log.warn("Could not settle stock hold for order {}: {}", orderId, ex.getMessage());
+                }
+            }
+        });
+    }
+
+    public void hold(UUID orderId, Map<UUID, Integer> quantitiesByProductId) {
+        List<UUID> productIds = new ArrayList<>(quantitiesByProductId.keySet());
+
+        List<String> keys = new ArrayList<>(productIds.size() + 2);
+        keys.add(HOLDS_KEY);
+        keys.add(holdKey(orderId));
+
+        List<String> args = new ArrayList<>(productIds.size() * 2 + 3);
+        args.add(orderId.toString());
+        args.add(String.valueOf(System.currentTimeMillis() + holdTtl.toMillis()));
+        args.add(String.valueOf(HOLD_RETENTION.toMillis()));
+
+        for (UUID productId : productIds) {
+            keys.add(availableKey(productId));
+            args.add(productId.toString());
+            args.add(String.valueOf(quantitiesByProductId.get(productId)));
+        }
+
+        // a second pass only happens when some products had never been loaded into Redis
+        for (int pass = 0; pass < 2; pass++) {
+            Long result = redisTemplate.execute(reserveScript, keys, args.toArray());
+            if (result == null) {
+                throw new IllegalStateException("Stock reservation script returned no result");
+            }
+            if (result == 0) {
+                return;
+            }
+            if (result > 0) {
+                throw new InsufficientStockException(productIds.get(result.intValue() - 1));
+            }
+            seedAvailableQuantities(productIds);
+        }
+        throw new IllegalStateException("Stock for order " + orderId + " could not be loaded into Redis");
+    }
+
+    public boolean confirm(UUID orderId) {
+        Long result = redisTemplate.execute(confirmScript, List.of(HOLDS_KEY, holdKey(orderId), SETTLE_KEY),
+                orderId.toString());
+        return Long.valueOf(1).equals(result);
+    }
+
+    // a hold never changes once written, so the products read here are the ones the script finds
+    public boolean release(UUID orderId) {
+        Set<String> productIds = redisTemplate.<String, String>opsForHash().keys(holdKey(orderId));
+
+        List<String> keys = new ArrayList<>(productIds.size() + 2);
+        keys.add(HOLDS_KEY);
+        keys.add(holdKey(orderId));
+        List<String> args = new ArrayList<>(productIds.size() + 1);
+        args.add(orderId.toString());
+        for (String productId : productIds) {
+            keys.add(AVAILABLE_KEY_PREFIX + productId);
+            args.add(productId);
+        }
+
+        Long result = redisTemplate.execute(releaseScript, keys, args.toArray());
+        if (Long.valueOf(-1).equals(result)) {
+            throw new IllegalStateException("Stock hold for order " + orderId + " changed while it was released");
+        }
+        return Long.valueOf(1).equals(result);
+    }
+
+    public Set<String> findExpiredHolds(int limit) {
+        return redisTemplate.opsForZSet()
+                .rangeByScore(HOLDS_KEY, Double.NEGATIVE_INFINITY, System.currentTimeMillis(), 0, limit);
+    }
+
+    /**
+     * Returns the confirmed quantities that still have to be applied to {@code inventory}.
+     * The batch stays claimed until {@link #completeSettlement()} so a crash mid-way resumes it.
+     */
+    public Map<UUID, Integer> claimSettlement() {
+        Long claimed = redisTemplate.execute(claimSettlementScript, List.of(SETTLE_KEY, SETTLE_IN_FLIGHT_KEY));
+        if (!Long.valueOf(1).equals(claimed)) {
+            return Map.of();
+        }
+        // only the reconciler, under its lock, touches the in-flight batch
+        return quantities(SETTLE_IN_FLIGHT_KEY);
+    }
+
+    /**
+     * Drops the claimed batch. Entries for {@code rejectedProductIds} were not applied to {@code inventory} and
+     * move to the {@value #SETTLE_DEAD_LETTER_KEY} hash until an operator reconciles them.
+     */
+    public void completeSettlement(Collection<UUID> rejectedProductIds) {
+        Object[] args = rejectedProductIds.stream().map(UUID::toString).toArray();
+        redisTemplate.execute(completeSettlementScript, List.of(SETTLE_IN_FLIGHT_KEY, SETTLE_DEAD_LETTER_KEY), args);
+    }
+
+    public Map<UUID, Integer> getDeadLetteredSettlement() {
+        return quantities(SETTLE_DEAD_LETTER_KEY);
+    }
+
+    public Integer getAvailableQuantity(UUID productId) {
+        String value = redisTemplate.opsForValue().get(availableKey(productId));
+        return value == null ? null : Integer.valueOf(value);
+    }
+
+    private void seedAvailableQuantities(List<UUID> productIds) {
+        Map<UUID, Inventory> inventoriesByProductId = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.findByProductIdIn(productIds)) {
+            inventoriesByProductId.put(inventory.getProduct().getId(), inventory);
+        }
+
+        for (UUID productId : productIds) {
+            Inventory inventory = inventoriesByProductId.get(productId);
+            if (inventory == null) {
+                throw new InventoryNotFoundException(productId);
+            }
+            // NX: a key another node seeded meanwhile already reflects holds against it
+            redisTemplate.opsForValue()
+                    .setIfAbsent(availableKey(productId), String.valueOf(inventory.getAvailableQuantity()));
+        }
+    }
+
+    private Map<UUID, Integer> quantities(String hashKey) {
+        Map<UUID, Integer> quantities = new HashMap<>();
+        redisTemplate.<String, String>opsForHash().entries(hashKey).forEach((productId, quantity) ->
+                quantities.put(UUID.fromString(productId), Integer.valueOf(quantity)));
+        return quantities;
+    }
+
+    private static String availableKey(UUID productId) {
+        return AVAILABLE_KEY_PREFIX + productId;
+    }
+
+    private static String holdKey(UUID orderId) {
+        return HOLD_KEY_PREFIX + orderId;
+    }
+}
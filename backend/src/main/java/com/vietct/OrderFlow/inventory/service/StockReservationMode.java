@@ -0,0 +1,14 @@
+package com.vietct.OrderFlow.inventory.service;
+
+public enum StockReservationMode {
+    /** Decrement the managed {@code Inventory} entity; a version conflict rejects the order. */
+    OPTIMISTIC,
+    /** Same as {@link #OPTIMISTIC}, but the whole checkout is retried with jittered backoff on conflict. */
+    OPTIMISTIC_RETRY,
+    /** One conditional {@code UPDATE ... WHERE available_quantity >= qty} for the whole cart. */
+    ATOMIC,
+    /** Hot products are sold from the in-memory {@link HotStockLedger}; other lines fall back to {@link #ATOMIC}. */
+    LEDGER,
+    /** All lines are held in Redis by one Lua script and settled against {@code inventory} in batches. */
+    REDIS
+}
@@ -0,0 +1,19 @@
+package com.vietct.OrderFlow.inventory.service;
+
+import java.util.Map;
+import java.util.UUID;
+
+public interface StockReservationService {
+
+    /**
+     * Reserves stock for an order inside the caller's transaction.
+     * The order id identifies the reservation for modes that hold stock outside the database.
+     */
+    void reserve(UUID orderId, Map<UUID, Integer> quantitiesByProductId);
+
+    /**
+     * Called after a checkout attempt failed on a concurrent stock update.
+     * Waits out the backoff and returns true when the caller should run another attempt.
+     */
+    boolean awaitRetry(int failedAttempts);
+}
@@ -0,0 +1,131 @@
+package com.vietct.OrderFlow.inventory.service;
+
+import com.vietct.OrderFlow.inventory.domain.Inventory;
+import com.vietct.OrderFlow.inventory.exception.InsufficientStockException;
+import com.vietct.OrderFlow.inventory.exception.InventoryNotFoundException;
+import com.vietct.OrderFlow.inventory.repository.InventoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservationServiceImpl.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final HotStockLedger hotStockLedger;
+    private final ObjectProvider<RedisStockReservationService> redisStockReservationService;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final StockReservationMode mode;
+
+    public StockReservationServiceImpl(InventoryRepository inventoryRepository,
+                                       HotStockLedger hotStockLedger,
+                                       ObjectProvider<RedisStockReservationService> redisStockReservationService,
+                                       @Value("${orderflow.inventory.reservation.mode:ATOMIC}") StockReservationMode mode,
+                                       @Value("${orderflow.inventory.reservation.max-attempts:5}") int maxAttempts,
+                                       @Value("${orderflow.inventory.reservation.base-backoff-ms:5}") long baseBackoffMillis,
+                                       @Value("${orderflow.inventory.reservation.max-backoff-ms:100}") long maxBackoffMillis) {
+        this.inventoryRepository = inventoryRepository;
+        this.hotStockLedger = hotStockLedger;
+        this.redisStockReservationService = redisStockReservationService;
+        this.mode = mode;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    @Override
+    public void reserve(UUID orderId, Map<UUID, Integer> quantitiesByProductId) {
+        if (mode == StockReservationMode.REDIS) {
+            RedisStockReservationService redisReservations = redisStockReservationService.getIfAvailable();
+            if (redisReservations == null) {
+                throw new IllegalStateException("REDIS stock reservation mode requires the redis-stock profile");
+            }
+            redisReservations.reserve(orderId, quantitiesByProductId);
+            return;
+        }
+
+        Map<UUID, Integer> remaining = mode == StockReservationMode.LEDGER
+                ? hotStockLedger.reserve(quantitiesByProductId)
+                : quantitiesByProductId;
+        if (remaining.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, Inventory> inventoriesByProductId = inventoryRepository
+                .findByProductIdIn(remaining.keySet()).stream()
+                .collect(Collectors.toMap(i -> i.getProduct().getId(), Function.identity()));
+
+        remaining.forEach((productId, quantity) -> {
+            Inventory inventory = inventoriesByProductId.get(productId);
+            if (inventory == null) {
+                throw new InventoryNotFoundException(productId);
+            }
+            if (inventory.getAvailableQuantity() < quantity) {
+                throw new InsufficientStockException(productId);
+            }
+        });
+
+        if (mode == StockReservationMode.ATOMIC || mode == StockReservationMode.LEDGER) {
+            reserveAtomically(remaining);
+        } else {
+            reserveOptimistically(remaining, inventoriesByProductId);
+        }
+    }
+
+    // One conditional UPDATE for the whole cart; a product missing from the result lost a race for its last units
+    private void reserveAtomically(Map<UUID, Integer> quantitiesByProductId) {
+        Set<UUID> reserved = new HashSet<>(inventoryRepository.decrementAvailableQuantities(quantitiesByProductId));
+        for (UUID productId : quantitiesByProductId.keySet()) {
+            if (!reserved.contains(productId)) {
+                throw new InsufficientStockException(productId);
+            }
+        }
+    }
+
+    private void reserveOptimistically(Map<UUID, Integer> quantitiesByProductId,
+                                       Map<UUID, Inventory> inventoriesByProductId) {
+        quantitiesByProductId.forEach((productId, quantity) -> {
+            Inventory inventory = inventoriesByProductId.get(productId);
+            inventory.setAvailableQuantity(inventory.getAvailableQuantity() - quantity);
+        });
+
+        // surface version conflicts here rather than at commit
+        inventoryRepository.flush();
+    }
+
+    @Override
+    public boolean awaitRetry(int failedAttempts) {
+        if (mode != StockReservationMode.OPTIMISTIC_RETRY || failedAttempts >= maxAttempts) {
+            return false;
+        }
+
+        // full jitter: sleep a random slice of the exponentially growing window
+        long window = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(failedAttempts - 1, 20));
+        long sleepMillis = ThreadLocalRandom.current().nextLong(window + 1);
+
+        log.debug("Stock reservation conflict, attempt {} of {}; retrying in {} ms",
+                failedAttempts, maxAttempts, sleepMillis);
+
+        try {
+            Thread.sleep(sleepMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,112 @@
+package com.vietct.OrderFlow.inventory.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock count for one product split into independent stripes so concurrent buyers CAS different slots.
+ * Threads start on their own stripe and only walk the others when it runs dry.
+ */
+public class StripedStockCounter {
+
+    private final AtomicLongArray stripes;
+
+    public StripedStockCounter(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("stripeCount must be positive");
+        }
+        this.stripes = new AtomicLongArray(stripeCount);
+    }
+
+    public boolean tryAcquire(long quantity) {
+        int count = stripes.length();
+        int home = homeStripe();
+
+        for (int i = 0; i < count; i++) {
+            if (tryTake((home + i) % count, quantity)) {
+                return true;
+            }
+        }
+
+        // no single stripe holds enough: gather from all of them, and give back if the total falls short
+        long[] taken = new long[count];
+        long gathered = 0;
+        for (int i = 0; i < count && gathered < quantity; i++) {
+            int index = (home + i) % count;
+            taken[index] = takeUpTo(index, quantity - gathered);
+            gathered += taken[index];
+        }
+        if (gathered == quantity) {
+            return true;
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (taken[i] > 0) {
+                stripes.addAndGet(i, taken[i]);
+            }
+        }
+        return false;
+    }
+
+    /** Spreads {@code quantity} evenly over the stripes. */
+    public void add(long quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        int count = stripes.length();
+        long share = quantity / count;
+        long remainder = quantity % count;
+        int home = homeStripe();
+        for (int i = 0; i < count; i++) {
+            long amount = share + (i < remainder ? 1 : 0);
+            if (amount > 0) {
+                stripes.addAndGet((home + i) % count, amount);
+            }
+        }
+    }
+
+    /** Removes up to {@code max} units and returns how many were removed. */
+    public long takeUpTo(long max) {
+        long taken = 0;
+        for (int i = 0; i < stripes.length() && taken < max; i++) {
+            taken += takeUpTo(i, max - taken);
+        }
+        return taken;
+    }
+
+    public long total() {
+        long total = 0;
+        for (int i = 0; i < stripes.length(); i++) {
+            total += stripes.get(i);
+        }
+        return total;
+    }
+
+    private boolean tryTake(int index, long quantity) {
+        long current;
+        do {
+            current = stripes.get(index);
+            if (current < quantity) {
+                return false;
+            }
+        } while (!stripes.compareAndSet(index, current, current - quantity));
+        return true;
+    }
+
+    private long takeUpTo(int index, long max) {
+        long current;
+        long take;
+        do {
+            current = stripes.get(index);
+            if (current <= 0) {
+                return 0;
+            }
+            take = Math.min(current, max);
+        } while (!stripes.compareAndSet(index, current, current - take));
+        return take;
+    }
+
+    private int homeStripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id ^ (id >>> 16)) & Integer.MAX_VALUE) % stripes.length();
+    }
+}
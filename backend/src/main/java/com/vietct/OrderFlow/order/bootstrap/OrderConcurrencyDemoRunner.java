@@ -4,26 +4,43 @@ import com.vietct.OrderFlow.catalog.domain.Category;
 import com.vietct.OrderFlow.catalog.domain.Product;
 import com.vietct.OrderFlow.catalog.repository.CategoryRepository;
 import com.vietct.OrderFlow.catalog.repository.ProductRepository;
+import com.vietct.OrderFlow.common.concurrent.WorkerThreads;
 import com.vietct.OrderFlow.inventory.domain.Inventory;
+import com.vietct.OrderFlow.inventory.exception.InsufficientStockException;
 import com.vietct.OrderFlow.inventory.repository.InventoryRepository;
+import com.vietct.OrderFlow.inventory.repository.LedgerJournalRepository;
+import com.vietct.OrderFlow.inventory.service.HotStockLedger;
+import com.vietct.OrderFlow.inventory.service.RedisStockReservationService;
+import com.vietct.OrderFlow.inventory.service.StockReservationMode;
+import com.vietct.OrderFlow.inventory.service.StockReservationService;
+import com.vietct.OrderFlow.inventory.service.StockReservationServiceImpl;
 import com.vietct.OrderFlow.order.domain.Order;
 import com.vietct.OrderFlow.order.dto.OrderCreateRequest;
 import com.vietct.OrderFlow.order.dto.OrderItemRequest;
 import com.vietct.OrderFlow.order.dto.OrderResponseDTO;
+import com.vietct.OrderFlow.order.repository.OrderRepository;
 import com.vietct.OrderFlow.order.service.OrderService;
+import com.vietct.OrderFlow.order.service.OrderServiceImpl;
+import com.vietct.OrderFlow.payment.service.PaymentService;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 @Profile("dev")
@@ -37,16 +54,65 @@ public class OrderConcurrencyDemoRunner {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final InventoryRepository inventoryRepository;
+    private final LedgerJournalRepository ledgerJournalRepository;
     private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final PaymentService paymentService;
+    private final HotStockLedger hotStockLedger;
+    private final ObjectProvider<RedisStockReservationService> redisStockReservationService;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    private final WorkerThreads workerThreads;
+
+    private final boolean benchmarkEnabled;
+    private final int benchmarkThreads;
+    private final int benchmarkOrdersPerThread;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int ledgerStripes;
+    private final int ledgerClaimSize;
 
     public OrderConcurrencyDemoRunner(ProductRepository productRepository,
                                       CategoryRepository categoryRepository,
                                       InventoryRepository inventoryRepository,
-                                      OrderService orderService) {
+                                      LedgerJournalRepository ledgerJournalRepository,
+                                      OrderService orderService,
+                                      OrderRepository orderRepository,
+                                      PaymentService paymentService,
+                                      HotStockLedger hotStockLedger,
+                                      ObjectProvider<RedisStockReservationService> redisStockReservationService,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      WorkerThreads workerThreads,
+                                      @Value("${orderflow.demo.contention-benchmark.enabled:false}") boolean benchmarkEnabled,
+                                      @Value("${orderflow.demo.contention-benchmark.threads:16}") int benchmarkThreads,
+                                      @Value("${orderflow.demo.contention-benchmark.orders-per-thread:25}") int benchmarkOrdersPerThread,
+                                      @Value("${orderflow.inventory.reservation.max-attempts:5}") int maxAttempts,
+                                      @Value("${orderflow.inventory.reservation.base-backoff-ms:5}") long baseBackoffMillis,
+                                      @Value("${orderflow.inventory.reservation.max-backoff-ms:100}") long maxBackoffMillis,
+                                      @Value("${orderflow.inventory.ledger.stripes:8}") int ledgerStripes,
+                                      @Value("${orderflow.inventory.ledger.claim-size:100}") int ledgerClaimSize) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.inventoryRepository = inventoryRepository;
+        this.ledgerJournalRepository = ledgerJournalRepository;
         this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.paymentService = paymentService;
+        this.hotStockLedger = hotStockLedger;
+        this.redisStockReservationService = redisStockReservationService;
+        this.transactionManager = transactionManager;
+        this.meterRegistry = meterRegistry;
+        this.workerThreads = workerThreads;
+        this.benchmarkEnabled = benchmarkEnabled;
+        this.benchmarkThreads = benchmarkThreads;
+        this.benchmarkOrdersPerThread = benchmarkOrdersPerThread;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.ledgerStripes = ledgerStripes;
+        this.ledgerClaimSize = ledgerClaimSize;
     }
 
     @PostConstruct
@@ -78,7 +144,7 @@ public class OrderConcurrencyDemoRunner {
                 "MOCK_CARD"
         );
 
-        var executor = Executors.newFixedThreadPool(2, new NamedThreadFactory("order-demo-"));
+        var executor = Executors.newFixedThreadPool(2, workerThreads.factory("order-demo-"));
         CountDownLatch latch = new CountDownLatch(2);
 
         Runnable task = () -> {
@@ -114,6 +180,142 @@ public class OrderConcurrencyDemoRunner {
                 product.getId(), after.getAvailableQuantity());
 
         log.info("=== Finished OrderConcurrencyDemoRunner ===");
+
+        if (benchmarkEnabled) {
+            runContentionBenchmark(product);
+        }
+    }
+
+    /**
+     * Hammers one product with {@code threads x ordersPerThread} single-unit orders per reservation mode.
+     * Stock is sized so that every order could succeed, so anything below 100% is lost to contention.
+     * Each mode gets its own service instances, so the application's configured mode is never switched. The
+     * LEDGER round gets its own ledger with the benchmark product as its only hot product, since a product picked at
+     * runtime cannot be in {@code hot-product-ids}.
+     */
+    private void runContentionBenchmark(Product product) {
+        int totalOrders = benchmarkThreads * benchmarkOrdersPerThread;
+
+        log.info("=== Contention benchmark: {} threads x {} orders on product {} ===",
+                benchmarkThreads, benchmarkOrdersPerThread, product.getId());
+
+        for (StockReservationMode mode : StockReservationMode.values()) {
+            if (mode == StockReservationMode.REDIS && redisStockReservationService.getIfAvailable() == null) {
+                log.info("mode={} skipped: needs the redis-stock profile", mode);
+                continue;
+            }
+            HotStockLedger ledger = mode == StockReservationMode.LEDGER ? benchmarkLedger(product) : hotStockLedger;
+            resetStock(product, totalOrders);
+            runContentionRound(product, mode, orderServiceFor(mode, ledger), totalOrders);
+            if (ledger != hotStockLedger) {
+                // hand the unsold chunks back before the next round resets the row
+                ledger.releaseAll();
+                log.info("mode={} stock after returning the ledger's unsold chunks: {}", mode,
+                        inventoryRepository.findByProductId(product.getId())
+                                .map(Inventory::getAvailableQuantity)
+                                .orElse(-1));
+            }
+        }
+
+        log.info("=== Finished contention benchmark ===");
+    }
+
+    // a node id of its own, so it neither recovers nor compacts the journal of the application's ledger
+    private HotStockLedger benchmarkLedger(Product product) {
+        return new HotStockLedger(inventoryRepository, ledgerJournalRepository, transactionManager,
+                StockReservationMode.LEDGER, "contention-benchmark-" + UUID.randomUUID(), List.of(product.getId()),
+                ledgerStripes, ledgerClaimSize);
+    }
+
+    private OrderService orderServiceFor(StockReservationMode mode, HotStockLedger ledger) {
+        StockReservationService stockReservationService = new StockReservationServiceImpl(inventoryRepository,
+                ledger, redisStockReservationService, mode, maxAttempts, baseBackoffMillis, maxBackoffMillis);
+        return new OrderServiceImpl(orderRepository, productRepository, stockReservationService, paymentService,
+                transactionManager, meterRegistry);
+    }
+
+    private void runContentionRound(Product product, StockReservationMode mode, OrderService orderService,
+                                    int totalOrders) {
+        OrderCreateRequest orderRequest = new OrderCreateRequest(
+                UUID.randomUUID(),
+                List.of(new OrderItemRequest(product.getId(), 1)),
+                "MOCK_CARD"
+        );
+
+        long[] latenciesNanos = new long[totalOrders];
+        AtomicInteger nextSlot = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger errored = new AtomicInteger();
+
+        var executor = Executors.newFixedThreadPool(benchmarkThreads, workerThreads.factory("order-bench-" + mode + "-"));
+        CountDownLatch startGate = new CountDownLatch(1);
+
+        long roundStart = System.nanoTime();
+        for (int t = 0; t < benchmarkThreads; t++) {
+            executor.submit(() -> {
+                try {
+                    startGate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < benchmarkOrdersPerThread; i++) {
+                    long start = System.nanoTime();
+                    try {
+                        orderService.placeOrder(orderRequest);
+                        succeeded.incrementAndGet();
+                    } catch (InsufficientStockException ex) {
+                        rejected.incrementAndGet();
+                    } catch (Exception ex) {
+                        errored.incrementAndGet();
+                        log.debug("Benchmark order failed in mode {}: {}", mode, ex.getMessage());
+                    }
+                    latenciesNanos[nextSlot.getAndIncrement()] = System.nanoTime() - start;
+                }
+            });
+        }
+
+        startGate.countDown();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - roundStart);
+
+        Arrays.sort(latenciesNanos);
+        int remaining = inventoryRepository.findByProductId(product.getId())
+                .map(Inventory::getAvailableQuantity)
+                .orElse(-1);
+
+        log.info("mode={} orders={} success={} ({}%) rejected={} errors={} p50={}ms p99={}ms elapsed={}ms remainingStock={}",
+                mode,
+                totalOrders,
+                succeeded.get(),
+                String.format("%.1f", 100.0 * succeeded.get() / totalOrders),
+                rejected.get(),
+                errored.get(),
+                String.format("%.2f", percentileMillis(latenciesNanos, 0.50)),
+                String.format("%.2f", percentileMillis(latenciesNanos, 0.99)),
+                elapsedMillis,
+                remaining);
+    }
+
+    private void resetStock(Product product, int quantity) {
+        Inventory inventory = inventoryRepository.findByProductId(product.getId())
+                .orElseGet(() -> createInventory(product));
+        inventory.setAvailableQuantity(quantity);
+        inventoryRepository.save(inventory);
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
     }
 
     private Product createDemoProduct() {
@@ -146,18 +348,4 @@ public class OrderConcurrencyDemoRunner {
         inv.setAvailableQuantity(1);
         return inventoryRepository.save(inv);
     }
-
-    private static class NamedThreadFactory implements ThreadFactory {
-        private final String prefix;
-        private int counter = 0;
-
-        private NamedThreadFactory(String prefix) {
-            this.prefix = prefix;
-        }
-
-        @Override
-        public Thread newThread(Runnable r) {
-            return new Thread(r, prefix + counter++);
-        }
-    }
 }
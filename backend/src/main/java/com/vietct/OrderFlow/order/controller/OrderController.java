@@ -1,25 +1,49 @@
 package com.vietct.OrderFlow.order.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vietct.OrderFlow.common.export.NdjsonWriter;
+import com.vietct.OrderFlow.common.pagination.CursorPage;
 import com.vietct.OrderFlow.order.domain.Order;
+import com.vietct.OrderFlow.order.domain.OrderIntake;
+import com.vietct.OrderFlow.order.domain.OrderIntakeStatus;
 import com.vietct.OrderFlow.order.dto.OrderCreateRequest;
+import com.vietct.OrderFlow.order.dto.OrderIntakeResponseDTO;
 import com.vietct.OrderFlow.order.dto.OrderResponseDTO;
+import com.vietct.OrderFlow.order.exception.OrderNotFoundException;
+import com.vietct.OrderFlow.order.service.OrderIntakeService;
 import com.vietct.OrderFlow.order.service.OrderService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/orders")
+@Validated
 public class OrderController {
 
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<OrderIntakeService> orderIntakeService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService,
+                           ObjectMapper objectMapper,
+                           ObjectProvider<OrderIntakeService> orderIntakeService) {
         this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.orderIntakeService = orderIntakeService;
     }
 
     @PostMapping
@@ -29,10 +53,42 @@ public class OrderController {
         return OrderResponseDTO.fromDomain(order);
     }
 
+    // Clients that send "Prefer: respond-async" get 202 and poll Location; without the async-orders profile it is a normal 201
+    @PostMapping(headers = "Prefer=respond-async")
+    public ResponseEntity<?> submitOrder(@Valid @RequestBody OrderCreateRequest request) {
+        OrderIntakeService intakeService = orderIntakeService.getIfAvailable();
+        if (intakeService == null) {
+            Order order = orderService.placeOrder(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(OrderResponseDTO.fromDomain(order));
+        }
+
+        OrderIntake intake = intakeService.submit(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/orders/" + intake.getId()))
+                .body(OrderIntakeResponseDTO.fromDomain(intake));
+    }
+
+    // 202 while an accepted order is still queued, 422 with the reason once it failed; only a placed order is 200
     @GetMapping("/{id}")
-    public OrderResponseDTO getOrder(@PathVariable UUID id) {
-        Order order = orderService.getOrder(id);
-        return OrderResponseDTO.fromDomain(order);
+    public ResponseEntity<?> getOrder(@PathVariable UUID id) {
+        try {
+            Order order = orderService.getOrder(id);
+            return ResponseEntity.ok(OrderResponseDTO.fromDomain(order));
+        } catch (OrderNotFoundException ex) {
+            OrderIntakeService intakeService = orderIntakeService.getIfAvailable();
+            if (intakeService == null) {
+                throw ex;
+            }
+            OrderIntake intake = intakeService.findUnfinished(id).orElse(null);
+            if (intake == null) {
+                // the worker may have placed it and cleared the row between the two reads
+                return ResponseEntity.ok(OrderResponseDTO.fromDomain(orderService.getOrder(id)));
+            }
+            HttpStatus status = intake.getStatus() == OrderIntakeStatus.FAILED
+                    ? HttpStatus.UNPROCESSABLE_ENTITY
+                    : HttpStatus.ACCEPTED;
+            return ResponseEntity.status(status).body(OrderIntakeResponseDTO.fromDomain(intake));
+        }
     }
 
     @GetMapping
@@ -43,4 +99,24 @@ public class OrderController {
         Page<Order> page = orderService.getOrdersForUser(userId, pageable);
         return page.map(OrderResponseDTO::fromDomain);
     }
+
+    // Keyset variant for long histories: pass back nextCursor, no total is counted
+    @GetMapping("/history")
+    public CursorPage<OrderResponseDTO> getOrderHistory(
+            @RequestParam UUID userId,
+            @RequestParam(name = "size", defaultValue = "20") @Min(1) @Max(100) int size,
+            @RequestParam(name = "cursor", required = false) String cursor
+    ) {
+        return orderService.getOrderHistory(userId, cursor, size)
+                .map(OrderResponseDTO::fromDomain);
+    }
+
+    // Full history for partner pulls, one order per line, written as it is read
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportOrders(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response.getOutputStream())) {
+            orderService.exportOrders(writer::write);
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.vietct.OrderFlow.order.domain;
 
 import com.vietct.OrderFlow.common.model.BaseEntity;
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -10,7 +11,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "orders")
-public class Order extends BaseEntity {
+public class Order extends BaseEntity implements Persistable<UUID> {
 
     @Column(name = "user_id", nullable = true)
     private UUID userId;
@@ -30,6 +31,17 @@ public class Order extends BaseEntity {
     )
     private List<OrderItem> items = new ArrayList<>();
 
+    // an id assigned up front (async intake) must still insert, and fail on a duplicate rather than merge over it
+    @Override
+    public void setId(UUID id) {
+        super.setId(id);
+    }
+
+    @Override
+    public boolean isNew() {
+        return getCreatedAt() == null;
+    }
+
     public UUID getUserId() {
         return userId;
     }
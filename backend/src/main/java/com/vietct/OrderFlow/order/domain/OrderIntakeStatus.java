@@ -0,0 +1,7 @@
+package com.vietct.OrderFlow.order.domain;
+
+public enum OrderIntakeStatus {
+    QUEUED,
+    PROCESSING,
+    FAILED
+}
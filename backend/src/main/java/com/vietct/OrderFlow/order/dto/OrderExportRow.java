@@ -0,0 +1,37 @@
+package com.vietct.OrderFlow.order.dto;
+
+import com.vietct.OrderFlow.order.domain.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One order line as read by the export query; the order columns repeat on every line of the same order and the
+ * line columns are null for an order without items.
+ */
+public record OrderExportRow(
+        UUID orderId,
+        UUID userId,
+        OrderStatus status,
+        BigDecimal totalAmount,
+        Instant createdAt,
+        Instant updatedAt,
+        UUID productId,
+        String productName,
+        Integer quantity,
+        BigDecimal priceAtOrder
+) {
+    public boolean hasItem() {
+        return productId != null;
+    }
+
+    public OrderItemResponseDTO toItem() {
+        return new OrderItemResponseDTO(productId, productName, quantity, priceAtOrder);
+    }
+
+    public OrderResponseDTO toOrder(List<OrderItemResponseDTO> items) {
+        return new OrderResponseDTO(orderId, userId, status, totalAmount, createdAt, updatedAt, items);
+    }
+}
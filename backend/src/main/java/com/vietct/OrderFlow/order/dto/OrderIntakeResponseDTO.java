@@ -0,0 +1,23 @@
+package com.vietct.OrderFlow.order.dto;
+
+import com.vietct.OrderFlow.order.domain.OrderIntake;
+import com.vietct.OrderFlow.order.domain.OrderIntakeStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record OrderIntakeResponseDTO(
+        UUID orderId,
+        OrderIntakeStatus status,
+        String failureReason,
+        Instant acceptedAt
+) {
+    public static OrderIntakeResponseDTO fromDomain(OrderIntake intake) {
+        return new OrderIntakeResponseDTO(
+                intake.getId(),
+                intake.getStatus(),
+                intake.getFailureReason(),
+                intake.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,8 @@
+package com.vietct.OrderFlow.order.exception;
+
+public class OrderIntakeFullException extends RuntimeException {
+
+    public OrderIntakeFullException(long capacity) {
+        super("Order intake is full (" + capacity + " pending orders), retry later");
+    }
+}
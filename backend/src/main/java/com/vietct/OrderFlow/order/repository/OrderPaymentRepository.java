@@ -0,0 +1,18 @@
+package com.vietct.OrderFlow.order.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface OrderPaymentRepository {
+
+    /**
+     * Marks the orders PAID in one statement; rows that already are PAID are left untouched.
+     *
+     * @return every order among {@code orderIds} that exists, with its owner
+     */
+    List<PaidOrder> markPaid(Collection<UUID> orderIds);
+
+    record PaidOrder(UUID orderId, UUID userId) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.vietct.OrderFlow.order.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class OrderPaymentRepositoryImpl implements OrderPaymentRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderPaymentRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // the data-modifying CTE runs even though the outer SELECT does not read it
+    @Override
+    public List<PaidOrder> markPaid(Collection<UUID> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(orderIds.size(), "CAST(? AS uuid)"));
+        String sql = "WITH target AS ( " +
+                "    SELECT id, user_id, status FROM orders WHERE id IN (" + placeholders + ") " +
+                "), paid AS ( " +
+                "    UPDATE orders AS o " +
+                "    SET status = 'PAID', updated_at = CURRENT_TIMESTAMP " +
+                "    FROM target t " +
+                "    WHERE o.id = t.id AND t.status <> 'PAID' " +
+                ") " +
+                "SELECT id, user_id FROM target";
+
+        return jdbcTemplate.query(sql,
+                (rs, rowNum) -> new PaidOrder(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class)),
+                orderIds.toArray());
+    }
+}
@@ -1,14 +1,58 @@
 package com.vietct.OrderFlow.order.repository;
 
 import com.vietct.OrderFlow.order.domain.Order;
+import com.vietct.OrderFlow.order.dto.OrderExportRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Order history is read in two phases: an id-only query pages over {@code idx_orders_user_created_at}, then
+ * {@link #findWithItemsByIdIn} fetches items and products for just those ids. Paging a collection fetch join
+ * directly would make Hibernate page in memory (HHH90003004).
+ */
+public interface OrderRepository extends JpaRepository<Order, UUID>, OrderPaymentRepository {
+
+    @Query(value = "SELECT o.id FROM Order o WHERE o.userId = :userId",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.userId = :userId")
+    Page<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.userId = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<UUID> findLatestIdsByUserId(@Param("userId") UUID userId, Limit limit);
+
+    // the redundant createdAt <= bound is what lets the index seek; the OR only breaks ties
+    @Query("SELECT o.id FROM Order o " +
+            "WHERE o.userId = :userId " +
+            "  AND o.createdAt <= :createdAt " +
+            "  AND (o.createdAt < :createdAt OR o.id < :id) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<UUID> findIdsByUserIdBefore(@Param("userId") UUID userId,
+                                     @Param("createdAt") Instant createdAt,
+                                     @Param("id") UUID id,
+                                     Limit limit);
 
-public interface OrderRepository extends JpaRepository<Order, UUID> {
     @EntityGraph(attributePaths = {"items", "items.product"})
-    Page<Order> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
+    List<Order> findWithItemsByIdIn(Collection<UUID> ids);
+
+    // export: lines of an order are adjacent, and the fetch size keeps the PostgreSQL cursor server-side
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.vietct.OrderFlow.order.dto.OrderExportRow(" +
+            "o.id, o.userId, o.status, o.totalAmount, o.createdAt, o.updatedAt, " +
+            "p.id, p.name, i.quantity, i.priceAtOrder) " +
+            "FROM Order o LEFT JOIN o.items i LEFT JOIN i.product p " +
+            "ORDER BY o.id")
+    Stream<OrderExportRow> streamExportRows();
 }
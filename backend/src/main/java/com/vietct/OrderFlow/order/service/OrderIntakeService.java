@@ -0,0 +1,281 @@
+package com.vietct.OrderFlow.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vietct.OrderFlow.catalog.exception.ProductNotFoundException;
+import com.vietct.OrderFlow.catalog.repository.ProductRepository;
+import com.vietct.OrderFlow.common.concurrent.WorkerThreads;
+import com.vietct.OrderFlow.inventory.exception.InsufficientStockException;
+import com.vietct.OrderFlow.order.domain.OrderIntake;
+import com.vietct.OrderFlow.order.domain.OrderIntakeStatus;
+import com.vietct.OrderFlow.order.dto.OrderCreateRequest;
+import com.vietct.OrderFlow.order.dto.OrderItemRequest;
+import com.vietct.OrderFlow.order.exception.OrderIntakeFullException;
+import com.vietct.OrderFlow.order.repository.OrderIntakeRepository;
+import com.vietct.OrderFlow.order.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous checkout. {@link #submit} validates a request, stores it in {@code order_intake} and returns the id
+ * the order will get, without touching inventory or payment. A dedicated pool of {@code workers} threads claims due
+ * rows with {@code FOR UPDATE SKIP LOCKED} and places them through {@link OrderService#placeOrder(UUID, OrderCreateRequest)},
+ * so a checkout burst queues in PostgreSQL instead of holding Tomcat threads and pool connections.
+ * <p>
+ * A placed order deletes its intake row. Requests that cannot succeed (unknown product, not enough stock) stay as
+ * {@link OrderIntakeStatus#FAILED}; other errors are retried with backoff up to {@code max-attempts}. Claims whose
+ * worker died are released after {@code claim-lease}, and the pre-assigned order id keeps the replay from placing twice.
+ * FAILED rows are deleted once they are older than {@code failed-retention}.
+ */
+@Service
+@Profile("async-orders")
+public class OrderIntakeService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakeService.class);
+
+    private static final String INTAKE_COUNTER = "orderflow.order.intake";
+    private static final int MAX_REASON_LENGTH = 500;
+
+    private final OrderIntakeRepository intakeRepository;
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final long capacity;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration claimLease;
+    private final Duration failedRetention;
+
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final ExecutorService workerPool;
+
+    private volatile boolean wakePending;
+
+    public OrderIntakeService(OrderIntakeRepository intakeRepository,
+                              OrderRepository orderRepository,
+                              OrderService orderService,
+                              ProductRepository productRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              WorkerThreads workerThreads,
+                              @Value("${orderflow.order.intake.capacity:10000}") long capacity,
+                              @Value("${orderflow.order.intake.workers:4}") int workers,
+                              @Value("${orderflow.order.intake.batch-size:20}") int batchSize,
+                              @Value("${orderflow.order.intake.max-attempts:5}") int maxAttempts,
+                              @Value("${orderflow.order.intake.retry-backoff:PT2S}") Duration retryBackoff,
+                              @Value("${orderflow.order.intake.claim-lease:PT5M}") Duration claimLease,
+                              @Value("${orderflow.order.intake.failed-retention:P7D}") Duration failedRetention) {
+        this.intakeRepository = intakeRepository;
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.capacity = capacity;
+        this.workers = Math.max(1, workers);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = retryBackoff;
+        this.claimLease = claimLease;
+        this.failedRetention = failedRetention;
+        this.workerPool = Executors.newFixedThreadPool(this.workers, workerThreads.factory("order-intake-"));
+    }
+
+    /**
+     * Queues the request and returns its intake row, whose id is the id of the order once it is placed.
+     *
+     * @throws ProductNotFoundException  if an item references an unknown product
+     * @throws OrderIntakeFullException if {@code capacity} requests are already waiting
+     */
+    public OrderIntake submit(OrderCreateRequest request) {
+        Set<UUID> productIds = request.items().stream()
+                .map(OrderItemRequest::productId)
+                .collect(Collectors.toSet());
+        Set<UUID> known = new HashSet<>(productRepository.findExistingIds(productIds));
+        for (UUID productId : productIds) {
+            if (!known.contains(productId)) {
+                throw new ProductNotFoundException(productId);
+            }
+        }
+
+        // concurrent submits may overshoot by a few; the bound is about bursts, not exact accounting
+        if (intakeRepository.countBacklog() >= capacity) {
+            meterRegistry.counter(INTAKE_COUNTER, "outcome", "rejected").increment();
+            throw new OrderIntakeFullException(capacity);
+        }
+
+        OrderIntake intake = new OrderIntake();
+        intake.setPayload(toJson(request));
+        intake.setStatus(OrderIntakeStatus.QUEUED);
+        intake.setNextAttemptAt(Instant.now());
+        OrderIntake saved = intakeRepository.save(intake);
+
+        meterRegistry.counter(INTAKE_COUNTER, "outcome", "accepted").increment();
+        wakeUp();
+        return saved;
+    }
+
+    /**
+     * The intake row of an order that is still queued or has failed; empty once the order exists.
+     */
+    public Optional<OrderIntake> findUnfinished(UUID orderId) {
+        return intakeRepository.findById(orderId);
+    }
+
+    // backstop for rows that became due later or whose wake-up found every worker busy
+    @Scheduled(fixedDelayString = "${orderflow.order.intake.poll-interval-ms:200}")
+    public void poll() {
+        startWorkers(1);
+    }
+
+    @Scheduled(fixedDelayString = "${orderflow.order.intake.release-interval-ms:30000}")
+    public void releaseExpiredClaims() {
+        int released = intakeRepository.releaseExpiredClaims(Instant.now().minus(claimLease));
+        if (released > 0) {
+            log.warn("OrderIntakeService: requeued {} claims older than {}", released, claimLease);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orderflow.order.intake.purge-interval-ms:3600000}")
+    public void purgeFailed() {
+        int purged = intakeRepository.deleteFailedBefore(Instant.now().minus(failedRetention));
+        if (purged > 0) {
+            log.info("OrderIntakeService: purged {} failed requests older than {}", purged, failedRetention);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workerPool.shutdown();
+    }
+
+    private void wakeUp() {
+        wakePending = true;
+        startWorkers(1);
+    }
+
+    // one worker probes the queue; a full batch brings in the rest of the pool
+    private synchronized void startWorkers(int target) {
+        while (activeWorkers.get() < Math.min(target, workers)) {
+            activeWorkers.incrementAndGet();
+            workerPool.execute(() -> {
+                try {
+                    drain();
+                } catch (RuntimeException ex) {
+                    log.error("OrderIntakeService: worker drain failed: {}", ex.getMessage(), ex);
+                } finally {
+                    activeWorkers.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    void drain() {
+        do {
+            wakePending = false;
+            List<OrderIntake> claimed;
+            while (!(claimed = claimBatch()).isEmpty()) {
+                if (claimed.size() == batchSize) {
+                    startWorkers(workers);
+                }
+                claimed.forEach(this::process);
+            }
+        } while (wakePending);
+    }
+
+    // the claim commits before any order is placed, so a slow order never holds the row locks of its batch
+    private List<OrderIntake> claimBatch() {
+        List<OrderIntake> claimed = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<OrderIntake> rows = intakeRepository.claimDue(now, batchSize);
+            for (OrderIntake row : rows) {
+                row.setStatus(OrderIntakeStatus.PROCESSING);
+                row.setClaimedAt(now);
+                row.setAttempts(row.getAttempts() + 1);
+            }
+            return rows;
+        });
+        return claimed == null ? List.of() : claimed;
+    }
+
+    void process(OrderIntake intake) {
+        UUID orderId = intake.getId();
+        try {
+            // a previous claim may have placed the order and died before deleting its row
+            if (!orderRepository.existsById(orderId)) {
+                orderService.placeOrder(orderId, readRequest(intake));
+            }
+            intakeRepository.deleteCompleted(orderId);
+            meterRegistry.counter(INTAKE_COUNTER, "outcome", "placed").increment();
+        } catch (ProductNotFoundException | InsufficientStockException | IllegalArgumentException ex) {
+            fail(intake, ex.getMessage());
+        } catch (RuntimeException ex) {
+            if (intake.getAttempts() >= maxAttempts) {
+                log.error("OrderIntakeService: giving up on order {} after {} attempts: {}",
+                        orderId, intake.getAttempts(), ex.getMessage(), ex);
+                fail(intake, "Could not be placed, please retry the checkout");
+                return;
+            }
+            Instant now = Instant.now();
+            Duration backoff = retryBackoff.multipliedBy(1L << Math.min(intake.getAttempts() - 1, 10));
+            intakeRepository.requeue(orderId, now.plus(backoff), truncate(ex.getMessage()), now);
+            meterRegistry.counter(INTAKE_COUNTER, "outcome", "retried").increment();
+        }
+    }
+
+    private void fail(OrderIntake intake, String reason) {
+        intakeRepository.markFailed(intake.getId(), truncate(reason), Instant.now());
+        meterRegistry.counter(INTAKE_COUNTER, "outcome", "failed").increment();
+    }
+
+    private OrderCreateRequest readRequest(OrderIntake intake) {
+        try {
+            return objectMapper.readValue(intake.getPayload(), OrderCreateRequest.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Unreadable order request", ex);
+        }
+    }
+
+    private String toJson(OrderCreateRequest request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize order request", ex);
+        }
+    }
+
+    private static String truncate(String reason) {
+        if (reason == null || reason.length() <= MAX_REASON_LENGTH) {
+            return reason;
+        }
+        return reason.substring(0, MAX_REASON_LENGTH);
+    }
+}
@@ -1,15 +1,36 @@
 package com.vietct.OrderFlow.order.service;
 
+import com.vietct.OrderFlow.common.pagination.CursorPage;
 import com.vietct.OrderFlow.order.domain.Order;
 import com.vietct.OrderFlow.order.dto.OrderCreateRequest;
+import com.vietct.OrderFlow.order.dto.OrderResponseDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface OrderService {
 
     Order placeOrder(OrderCreateRequest request);
+
+    /**
+     * Places the order under an id handed out before it existed, as the async intake does. Placing the same id
+     * twice fails instead of overwriting the first order.
+     */
+    Order placeOrder(UUID orderId, OrderCreateRequest request);
+
     Order getOrder(UUID id);
     Page<Order> getOrdersForUser(UUID userId, Pageable pageable);
+
+    /**
+     * Newest-first order history addressed by the cursor of the previous slice, without a total count.
+     */
+    CursorPage<Order> getOrderHistory(UUID userId, String cursor, int size);
+
+    /**
+     * Hands every order, with its items, to {@code sink} in id order from one read-only transaction. Rows come
+     * from a server-side cursor and only the order being assembled is held in memory.
+     */
+    void exportOrders(Consumer<OrderResponseDTO> sink);
 }
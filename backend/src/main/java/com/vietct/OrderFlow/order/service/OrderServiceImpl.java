@@ -3,62 +3,119 @@ package com.vietct.OrderFlow.order.service;
 import com.vietct.OrderFlow.catalog.domain.Product;
 import com.vietct.OrderFlow.catalog.exception.ProductNotFoundException;
 import com.vietct.OrderFlow.catalog.repository.ProductRepository;
-import com.vietct.OrderFlow.inventory.domain.Inventory;
+import com.vietct.OrderFlow.common.pagination.Cursor;
+import com.vietct.OrderFlow.common.pagination.CursorPage;
+import com.vietct.OrderFlow.common.pagination.InvalidCursorException;
 import com.vietct.OrderFlow.inventory.exception.InsufficientStockException;
-import com.vietct.OrderFlow.inventory.exception.InventoryNotFoundException;
-import com.vietct.OrderFlow.inventory.repository.InventoryRepository;
+import com.vietct.OrderFlow.inventory.service.StockReservationService;
 import com.vietct.OrderFlow.order.domain.Order;
 import com.vietct.OrderFlow.order.domain.OrderItem;
 import com.vietct.OrderFlow.order.domain.OrderStatus;
 import com.vietct.OrderFlow.order.dto.OrderCreateRequest;
+import com.vietct.OrderFlow.order.dto.OrderExportRow;
+import com.vietct.OrderFlow.order.dto.OrderItemResponseDTO;
 import com.vietct.OrderFlow.order.dto.OrderItemRequest;
+import com.vietct.OrderFlow.order.dto.OrderResponseDTO;
 import com.vietct.OrderFlow.order.exception.OrderNotFoundException;
 import com.vietct.OrderFlow.order.repository.OrderRepository;
 import com.vietct.OrderFlow.payment.service.PaymentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.persistence.OptimisticLockException;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    private static final String PLACE_ORDER_TIMER = "orderflow.order.place";
+    private static final String STOCK_CONFLICT_COUNTER = "orderflow.order.stock.conflicts";
+    private static final Sort HISTORY_ORDER = Sort.by(Sort.Direction.DESC, "createdAt");
+
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
-    private final InventoryRepository inventoryRepository;
+    private final StockReservationService stockReservationService;
     private final PaymentService paymentService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
 
     public OrderServiceImpl(OrderRepository orderRepository,
                             ProductRepository productRepository,
-                            InventoryRepository inventoryRepository,
-                            PaymentService paymentService) {
+                            StockReservationService stockReservationService,
+                            PaymentService paymentService,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
-        this.inventoryRepository = inventoryRepository;
+        this.stockReservationService = stockReservationService;
         this.paymentService = paymentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
-    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Order placeOrder(OrderCreateRequest request) {
+        return placeOrder(null, request);
+    }
+
+    // Each attempt runs in its own transaction: a version conflict leaves the failed one rollback-only
+    @Override
+    public Order placeOrder(UUID orderId, OrderCreateRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        int failedAttempts = 0;
         try {
-            return doPlaceOrderInternal(request);
-        } catch (ObjectOptimisticLockingFailureException | OptimisticLockException ex) {
-            throw new InsufficientStockException("Failed to place order due to concurrent stock updates");
+            while (true) {
+                try {
+                    Order order = transactionTemplate.execute(status -> doPlaceOrderInternal(orderId, request));
+                    outcome = "success";
+                    return order;
+                } catch (ObjectOptimisticLockingFailureException | OptimisticLockException ex) {
+                    failedAttempts++;
+                    meterRegistry.counter(STOCK_CONFLICT_COUNTER).increment();
+                    if (!stockReservationService.awaitRetry(failedAttempts)) {
+                        outcome = "optimistic_conflict";
+                        throw new InsufficientStockException("Failed to place order due to concurrent stock updates");
+                    }
+                }
+            }
+        } catch (InsufficientStockException ex) {
+            if (!"optimistic_conflict".equals(outcome)) {
+                outcome = "insufficient_stock";
+            }
+            throw ex;
+        } finally {
+            sample.stop(meterRegistry.timer(PLACE_ORDER_TIMER, "outcome", outcome));
         }
     }
 
-    private Order doPlaceOrderInternal(OrderCreateRequest request) {
+    private Order doPlaceOrderInternal(UUID orderId, OrderCreateRequest request) {
         List<UUID> productIds = request.items().stream()
                 .map(OrderItemRequest::productId)
                 .toList();
@@ -67,11 +124,15 @@ public class OrderServiceImpl implements OrderService {
                 .collect(Collectors.toMap(p -> p.getId(), Function.identity()));
 
         Order order = new Order();
+        if (orderId != null) {
+            order.setId(orderId);
+        }
         order.setUserId(request.userId());
         order.setStatus(OrderStatus.PENDING);
 
         BigDecimal total = BigDecimal.ZERO;
         List<OrderItem> items = new ArrayList<>();
+        Map<UUID, Integer> requestedByProductId = new LinkedHashMap<>();
 
         for (OrderItemRequest itemRequest : request.items()) {
             UUID productId = itemRequest.productId();
@@ -81,20 +142,12 @@ public class OrderServiceImpl implements OrderService {
                 throw new ProductNotFoundException(productId);
             }
 
-            Inventory inventory = inventoryRepository.findByProductId(productId)
-                    .orElseThrow(() -> new InventoryNotFoundException(productId));
-
             int requestedQty = itemRequest.quantity();
             if (requestedQty <= 0) {
                 throw new IllegalArgumentException("Quantity must be positive for product: " + productId);
             }
 
-            int available = inventory.getAvailableQuantity();
-            if (available < requestedQty) {
-                throw new InsufficientStockException(productId);
-            }
-
-            inventory.setAvailableQuantity(available - requestedQty);
+            requestedByProductId.merge(productId, requestedQty, Integer::sum);
 
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
@@ -112,8 +165,11 @@ public class OrderServiceImpl implements OrderService {
         order.setTotalAmount(total);
         order.setItems(items);
 
+        // persisting assigns the id without flushing, so the reservation can be keyed by it
         Order savedOrder = orderRepository.save(order);
 
+        stockReservationService.reserve(savedOrder.getId(), requestedByProductId);
+
         paymentService.processPayment(savedOrder, total, request.paymentMethod());
 
         return savedOrder;
@@ -128,6 +184,67 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(readOnly = true)
     public Page<Order> getOrdersForUser(UUID userId, Pageable pageable) {
-        return orderRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+        Sort sort = HISTORY_ORDER.and(pageable.getSort()).and(Sort.by(Sort.Direction.DESC, "id"));
+        Page<UUID> ids = orderRepository.findIdsByUserId(userId,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort));
+        return new PageImpl<>(loadWithItems(ids.getContent()), pageable, ids.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Order> getOrderHistory(UUID userId, String cursor, int size) {
+        Sort.Order order = HISTORY_ORDER.iterator().next();
+        Cursor before = cursor == null ? null : Cursor.decode(cursor).requireSort(order);
+
+        // one extra id tells whether another slice exists without counting
+        Limit limit = Limit.of(size + 1);
+        List<UUID> ids = before == null
+                ? orderRepository.findLatestIdsByUserId(userId, limit)
+                : orderRepository.findIdsByUserIdBefore(userId, parseInstant(before.value()), before.id(), limit);
+
+        return CursorPage.of(loadWithItems(ids), size, o -> new Cursor(order.getProperty(), order.getDirection(),
+                o.getCreatedAt().toString(), o.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOrders(Consumer<OrderResponseDTO> sink) {
+        try (Stream<OrderExportRow> rows = orderRepository.streamExportRows()) {
+            OrderExportRow current = null;
+            List<OrderItemResponseDTO> items = new ArrayList<>();
+            for (Iterator<OrderExportRow> it = rows.iterator(); it.hasNext(); ) {
+                OrderExportRow row = it.next();
+                // lines arrive grouped by order, so a new id completes the previous one
+                if (current != null && !current.orderId().equals(row.orderId())) {
+                    sink.accept(current.toOrder(items));
+                    items = new ArrayList<>();
+                }
+                current = row;
+                if (row.hasItem()) {
+                    items.add(row.toItem());
+                }
+            }
+            if (current != null) {
+                sink.accept(current.toOrder(items));
+            }
+        }
+    }
+
+    // second phase: items and products for exactly these orders, returned in the order of ids
+    private List<Order> loadWithItems(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Order> byId = orderRepository.findWithItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private static Instant parseInstant(String value) {
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException ex) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
     }
 }
@@ -1,12 +1,56 @@
 package com.vietct.OrderFlow.outbox.repository;
 
 import com.vietct.OrderFlow.outbox.domain.OutboxEvent;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
-public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID>, OutboxMaintenanceRepository {
 
-    List<OutboxEvent> findTop100ByProcessedAtIsNullOrderByCreatedAtAsc();
+    List<OutboxEvent> findByProcessedAtIsNullOrderByCreatedAtAsc(Limit limit);
+
+    long countByProcessedAtIsNull();
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.processedAt IS NULL")
+    Instant findOldestUnprocessedCreatedAt();
+
+    /**
+     * Locks the oldest unprocessed events until the surrounding transaction ends, skipping rows other workers hold.
+     */
+    @Query(value = "SELECT * FROM outbox_event " +
+            "WHERE processed_at IS NULL " +
+            "ORDER BY created_at " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> claimUnprocessed(@Param("limit") int limit);
+
+    /**
+     * Same as {@link #claimUnprocessed(int)} but limited to the aggregates hashed into {@code partition}.
+     */
+    @Query(value = "SELECT * FROM outbox_event " +
+            "WHERE processed_at IS NULL " +
+            "  AND (hashtext(CAST(aggregate_id AS text)) & 2147483647) % :partitions = :partition " +
+            "ORDER BY created_at " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> claimUnprocessedInPartition(@Param("partition") int partition,
+                                                  @Param("partitions") int partitions,
+                                                  @Param("limit") int limit);
+
+    /**
+     * Transaction-scoped advisory lock, so a partition has a single publisher across the cluster.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:lockClass, :partition)", nativeQuery = true)
+    boolean tryLockPartition(@Param("lockClass") int lockClass, @Param("partition") int partition);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.processedAt = :processedAt WHERE e.id IN :ids AND e.processedAt IS NULL")
+    int markProcessed(@Param("ids") Collection<UUID> ids, @Param("processedAt") Instant processedAt);
 }
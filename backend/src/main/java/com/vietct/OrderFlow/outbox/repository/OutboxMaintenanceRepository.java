@@ -0,0 +1,36 @@
+package com.vietct.OrderFlow.outbox.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface OutboxMaintenanceRepository {
+
+    /**
+     * Creates the day's partition unless it exists, moving rows of that day out of the default partition.
+     */
+    void createPartition(LocalDate day);
+
+    /**
+     * Days (UTC) of the existing daily partitions, oldest first. The default partition is not included.
+     */
+    List<LocalDate> findPartitionDays();
+
+    boolean hasUnprocessedEvents(LocalDate day);
+
+    /**
+     * Days (UTC) of the rows sitting in the default partition because their partition did not exist yet.
+     */
+    List<LocalDate> findDefaultPartitionDays();
+
+    int archivePartition(LocalDate day);
+
+    /**
+     * Detaches and drops the partition. DETACH takes an ACCESS EXCLUSIVE lock on {@code outbox_event} (CONCURRENTLY
+     * is not allowed next to a default partition), so it gives up after a short lock timeout instead of stalling
+     * inserts behind a long transaction; call it inside a transaction.
+     */
+    void dropPartition(LocalDate day);
+
+    int deleteArchivedBefore(Instant cutoff);
+}
@@ -0,0 +1,82 @@
+package com.vietct.OrderFlow.outbox.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+public class OutboxMaintenanceRepositoryImpl implements OutboxMaintenanceRepository {
+
+    private static final String PARTITION_PREFIX = "outbox_event_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String DETACH_LOCK_TIMEOUT = "5s";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxMaintenanceRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void createPartition(LocalDate day) {
+        jdbcTemplate.query("SELECT ensure_outbox_event_partition(?)", rs -> null, day);
+    }
+
+    @Override
+    public List<LocalDate> findPartitionDays() {
+        String sql = "SELECT c.relname " +
+                "FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'outbox_event'::regclass " +
+                "  AND c.relname LIKE '" + PARTITION_PREFIX + "%' " +
+                "ORDER BY c.relname";
+
+        return jdbcTemplate.queryForList(sql, String.class).stream()
+                .map(name -> LocalDate.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX))
+                .toList();
+    }
+
+    @Override
+    public boolean hasUnprocessedEvents(LocalDate day) {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + partitionName(day) + " WHERE processed_at IS NULL)",
+                Boolean.class);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    @Override
+    public List<LocalDate> findDefaultPartitionDays() {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT (created_at AT TIME ZONE 'UTC')::date AS day FROM outbox_event_default ORDER BY day",
+                LocalDate.class);
+    }
+
+    @Override
+    public int archivePartition(LocalDate day) {
+        return jdbcTemplate.update("INSERT INTO outbox_event_archive " +
+                "(id, aggregate_type, aggregate_id, event_type, payload, created_at, processed_at) " +
+                "SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at, processed_at " +
+                "FROM " + partitionName(day));
+    }
+
+    @Override
+    public void dropPartition(LocalDate day) {
+        String partition = partitionName(day);
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '" + DETACH_LOCK_TIMEOUT + "'");
+        jdbcTemplate.execute("ALTER TABLE outbox_event DETACH PARTITION " + partition);
+        jdbcTemplate.execute("DROP TABLE " + partition);
+    }
+
+    @Override
+    public int deleteArchivedBefore(Instant cutoff) {
+        return jdbcTemplate.update("DELETE FROM outbox_event_archive WHERE processed_at < ?", Timestamp.from(cutoff));
+    }
+
+    // built from a LocalDate only, so it is safe to splice into DDL
+    private static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + PARTITION_SUFFIX.format(day);
+    }
+}
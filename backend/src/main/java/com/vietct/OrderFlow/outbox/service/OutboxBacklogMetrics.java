@@ -0,0 +1,43 @@
+package com.vietct.OrderFlow.outbox.service;
+
+import com.vietct.OrderFlow.outbox.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the outbox backlog as gauges. Both values come from the partial unprocessed index and are refreshed
+ * on a timer instead of per scrape, so a slow database never stalls the Prometheus endpoint.
+ */
+@Component
+public class OutboxBacklogMetrics {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong oldestAgeSeconds = new AtomicLong();
+
+    public OutboxBacklogMetrics(OutboxEventRepository outboxEventRepository, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+
+        Gauge.builder("orderflow.outbox.backlog", backlog, AtomicLong::get)
+                .description("Unprocessed outbox events")
+                .register(meterRegistry);
+        Gauge.builder("orderflow.outbox.oldest.age", oldestAgeSeconds, AtomicLong::get)
+                .description("Age of the oldest unprocessed outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${orderflow.outbox.metrics.refresh-interval-ms:15000}")
+    public void refresh() {
+        backlog.set(outboxEventRepository.countByProcessedAtIsNull());
+
+        Instant oldest = outboxEventRepository.findOldestUnprocessedCreatedAt();
+        oldestAgeSeconds.set(oldest == null ? 0 : Duration.between(oldest, Instant.now()).toSeconds());
+    }
+}
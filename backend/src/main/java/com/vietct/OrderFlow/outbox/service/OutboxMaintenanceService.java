@@ -0,0 +1,135 @@
+package com.vietct.OrderFlow.outbox.service;
+
+import com.vietct.OrderFlow.common.lock.DistributedLockManager;
+import com.vietct.OrderFlow.common.lock.LockLease;
+import com.vietct.OrderFlow.outbox.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Keeps the daily {@code outbox_event} partitions ahead of the clock and retires old ones: a partition whose day
+ * ended more than {@code hot-retention} ago and holds no unprocessed events is copied to
+ * {@code outbox_event_archive} (unless archiving is off) and dropped. Archived rows are purged after
+ * {@code archive-retention}.
+ * <p>
+ * Partitions up to {@code premake-days} ahead are also created while the context starts, before the publisher or
+ * checkout run. Rows that still landed in the default partition (maintenance down for longer than that) are moved
+ * into their day's partition on the next run. Dropping a partition briefly locks {@code outbox_event} exclusively;
+ * if that lock is not granted within a few seconds the partition is retried on the next run.
+ */
+@Component
+public class OutboxMaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxMaintenanceService.class);
+
+    private static final String MAINTENANCE_LOCK_NAME = "outbox:maintenance";
+    // renewed while maintenance runs, so this only decides how fast another node takes over after a crash
+    private static final Duration MAINTENANCE_LOCK_LEASE = Duration.ofSeconds(30);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final DistributedLockManager lockManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int premakeDays;
+    private final Duration hotRetention;
+    private final boolean archiveEnabled;
+    private final Duration archiveRetention;
+
+    public OutboxMaintenanceService(OutboxEventRepository outboxEventRepository,
+                                    DistributedLockManager lockManager,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${orderflow.outbox.maintenance.premake-days:3}") int premakeDays,
+                                    @Value("${orderflow.outbox.maintenance.hot-retention:P1D}") Duration hotRetention,
+                                    @Value("${orderflow.outbox.maintenance.archive-enabled:true}") boolean archiveEnabled,
+                                    @Value("${orderflow.outbox.maintenance.archive-retention:P30D}") Duration archiveRetention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.lockManager = lockManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.premakeDays = premakeDays;
+        this.hotRetention = hotRetention;
+        this.archiveEnabled = archiveEnabled;
+        this.archiveRetention = archiveRetention;
+    }
+
+    // fails startup if the partitions cannot be created: the alternative is checkouts piling into the default
+    @PostConstruct
+    public void createUpcomingPartitions() {
+        createUpcomingPartitions(LocalDate.now(ZoneOffset.UTC));
+    }
+
+    @Scheduled(initialDelayString = "${orderflow.outbox.maintenance.initial-delay-ms:30000}",
+            fixedDelayString = "${orderflow.outbox.maintenance.interval-ms:3600000}")
+    public void runMaintenance() {
+        Optional<LockLease> lease = lockManager.tryAcquire(MAINTENANCE_LOCK_NAME, MAINTENANCE_LOCK_LEASE);
+        if (lease.isEmpty()) {
+            return;
+        }
+
+        try (LockLease ignored = lease.get()) {
+            doRunMaintenance(Instant.now());
+        }
+    }
+
+    void doRunMaintenance(Instant now) {
+        createUpcomingPartitions(LocalDate.ofInstant(now, ZoneOffset.UTC));
+
+        for (LocalDate day : outboxEventRepository.findDefaultPartitionDays()) {
+            outboxEventRepository.createPartition(day);
+            log.warn("OutboxMaintenance: moved events of {} out of outbox_event_default into their partition", day);
+        }
+
+        for (LocalDate day : outboxEventRepository.findPartitionDays()) {
+            Instant partitionEnd = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            if (partitionEnd.plus(hotRetention).isAfter(now)) {
+                break;
+            }
+            retirePartition(day);
+        }
+
+        if (archiveEnabled) {
+            int purged = outboxEventRepository.deleteArchivedBefore(now.minus(archiveRetention));
+            if (purged > 0) {
+                log.info("OutboxMaintenance: purged {} archived events older than {}", purged, archiveRetention);
+            }
+        }
+    }
+
+    private void createUpcomingPartitions(LocalDate today) {
+        for (int i = 0; i <= premakeDays; i++) {
+            outboxEventRepository.createPartition(today.plusDays(i));
+        }
+    }
+
+    private void retirePartition(LocalDate day) {
+        // a stuck event keeps its whole day hot until it is published
+        if (outboxEventRepository.hasUnprocessedEvents(day)) {
+            log.warn("OutboxMaintenance: partition {} still has unprocessed events, keeping it", day);
+            return;
+        }
+
+        Integer archived;
+        try {
+            archived = transactionTemplate.execute(status -> {
+                int rows = archiveEnabled ? outboxEventRepository.archivePartition(day) : 0;
+                outboxEventRepository.dropPartition(day);
+                return rows;
+            });
+        } catch (DataAccessException ex) {
+            log.warn("OutboxMaintenance: could not drop partition {}, retrying next run: {}", day, ex.getMessage());
+            return;
+        }
+        log.info("OutboxMaintenance: dropped partition {} (archived {} events)", day, archived);
+    }
+}
@@ -0,0 +1,102 @@
+package com.vietct.OrderFlow.outbox.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Keeps one pooled connection on {@code LISTEN outbox_event} (fed by the V6 trigger) and wakes
+ * {@link OutboxPublisher} as soon as an outbox insert commits. Polling stays on as the fallback.
+ */
+@Component
+@Profile("kafka")
+@ConditionalOnProperty(name = "orderflow.outbox.listen.enabled", havingValue = "true")
+public class OutboxNotificationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxNotificationListener.class);
+
+    static final String CHANNEL = "outbox_event";
+    private static final int RECEIVE_TIMEOUT_MS = 1000;
+
+    private final DataSource dataSource;
+    private final OutboxPublisher outboxPublisher;
+    private final long reconnectDelayMs;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public OutboxNotificationListener(DataSource dataSource,
+                                      OutboxPublisher outboxPublisher,
+                                      @Value("${orderflow.outbox.listen.reconnect-delay-ms:2000}") long reconnectDelayMs) {
+        this.dataSource = dataSource;
+        this.outboxPublisher = outboxPublisher;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "outbox-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("OutboxNotificationListener: listening on channel {}", CHANNEL);
+
+                // rows committed while no listener was attached never notify us
+                outboxPublisher.wakeUp();
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(RECEIVE_TIMEOUT_MS);
+                    if (notifications != null && notifications.length > 0) {
+                        outboxPublisher.wakeUp();
+                    }
+                }
+            } catch (SQLException | RuntimeException ex) {
+                if (!running) {
+                    return;
+                }
+                log.warn("OutboxNotificationListener: connection lost, retrying in {} ms: {}",
+                        reconnectDelayMs, ex.getMessage());
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(reconnectDelayMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.vietct.OrderFlow.outbox.service;
+
+public enum OutboxPublishMode {
+    /**
+     * One node at a time drains the outbox, elected through the {@code outbox:publisher} Redis lock.
+     */
+    LEADER,
+    /**
+     * Every node runs several workers that claim disjoint batches with {@code FOR UPDATE SKIP LOCKED};
+     * the claimed rows stay locked until the batch is published and marked processed.
+     */
+    SKIP_LOCKED
+}
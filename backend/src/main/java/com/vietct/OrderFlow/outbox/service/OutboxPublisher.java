@@ -1,22 +1,65 @@
 package com.vietct.OrderFlow.outbox.service;
 
+import com.vietct.OrderFlow.common.concurrent.WorkerThreads;
 import com.vietct.OrderFlow.common.lock.DistributedLockManager;
+import com.vietct.OrderFlow.common.lock.LockLease;
 import com.vietct.OrderFlow.outbox.domain.OutboxEvent;
 import com.vietct.OrderFlow.outbox.repository.OutboxEventRepository;
-import org.apache.kafka.clients.producer.RecordMetadata;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
 
+/**
+ * Drains {@code outbox_event} into Kafka. Each batch is sent without waiting per record, the futures are
+ * awaited once, and every acknowledged id is marked processed with a single UPDATE. Once an event of an aggregate
+ * fails, its later events in the batch are left unprocessed even if acknowledged: they are sent again after it, so
+ * the last copy on the topic is in order, at the cost of a duplicate consumers already deduplicate.
+ * <p>
+ * The batch size doubles while batches come back full and halves when they run mostly empty; the publisher keeps
+ * draining while a backlog remains and backs off its poll interval while the table is idle.
+ * <p>
+ * In {@link OutboxPublishMode#SKIP_LOCKED} mode every node runs {@code workers} drains in parallel. With
+ * {@code partitions > 1} each claim is restricted to one hash partition of {@code aggregate_id} guarded by an
+ * advisory lock, which keeps events of one aggregate in order; use at least as many partitions as workers cluster-wide.
+ * A claim moves on past empty partitions, and a worker that only finds partitions locked by others keeps the short
+ * poll interval.
+ * <p>
+ * In {@link OutboxPublishMode#LEADER} mode the drain runs under a renewed lease, checked before each batch, right
+ * before its sends and again before its processed marks. A node paused past its lease therefore stops at the next
+ * of those points; one paused between two of them can still duplicate at most one batch, which consumers
+ * deduplicate.
+ */
 @Component
 @Profile("kafka")
 public class OutboxPublisher {
@@ -27,79 +70,346 @@ public class OutboxPublisher {
     private static final String DEFAULT_TOPIC = "orderflow.outbox.default";
 
     private static final String OUTBOX_LOCK_NAME = "outbox:publisher";
-    private static final Duration OUTBOX_LOCK_TTL = Duration.ofSeconds(5);
+    private static final Duration OUTBOX_LOCK_LEASE = Duration.ofSeconds(10);
+    // bounds one drain so the scheduler and the poll interval adaptation get a turn
+    private static final Duration DRAIN_BUDGET = Duration.ofSeconds(3);
+    private static final int PARTITION_LOCK_CLASS = 0x0b0c;
 
     private final OutboxEventRepository outboxEventRepository;
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final DistributedLockManager lockManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer publishLag;
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final long minPollIntervalMs;
+    private final long maxPollIntervalMs;
+    private final long sendTimeoutMs;
+    private final OutboxPublishMode mode;
+    private final int workers;
+    private final int partitions;
+
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicInteger nextPartition = new AtomicInteger();
+    private final ExecutorService workerPool;
+    // not synchronized: a LEADER drain blocks on JDBC and broker acks, which would pin a virtual carrier thread
+    private final ReentrantLock publishLock = new ReentrantLock();
+
+    private volatile int batchSize;
+    private volatile long pollIntervalMs;
+    private volatile long nextPollAtMillis;
+    private volatile boolean wakePending;
 
     public OutboxPublisher(OutboxEventRepository outboxEventRepository,
                            KafkaTemplate<String, String> kafkaTemplate,
-                           DistributedLockManager lockManager) {
+                           DistributedLockManager lockManager,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${orderflow.outbox.min-batch-size:100}") int minBatchSize,
+                           @Value("${orderflow.outbox.max-batch-size:2000}") int maxBatchSize,
+                           @Value("${orderflow.outbox.min-poll-interval-ms:50}") long minPollIntervalMs,
+                           @Value("${orderflow.outbox.max-poll-interval-ms:1000}") long maxPollIntervalMs,
+                           @Value("${orderflow.outbox.send-timeout-ms:3000}") long sendTimeoutMs,
+                           @Value("${orderflow.outbox.mode:LEADER}") OutboxPublishMode mode,
+                           @Value("${orderflow.outbox.workers:4}") int workers,
+                           @Value("${orderflow.outbox.partitions:16}") int partitions,
+                           WorkerThreads workerThreads) {
         this.outboxEventRepository = outboxEventRepository;
         this.kafkaTemplate = kafkaTemplate;
         this.lockManager = lockManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publishedCounter = meterRegistry.counter("orderflow.outbox.published");
+        this.failedCounter = meterRegistry.counter("orderflow.outbox.failed");
+        // time from the business write to the broker acknowledgement
+        this.publishLag = meterRegistry.timer("orderflow.outbox.publish.lag");
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = Math.max(minBatchSize, maxBatchSize);
+        this.minPollIntervalMs = minPollIntervalMs;
+        this.maxPollIntervalMs = Math.max(minPollIntervalMs, maxPollIntervalMs);
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.batchSize = minBatchSize;
+        this.pollIntervalMs = minPollIntervalMs;
+        this.mode = mode;
+        this.workers = Math.max(1, workers);
+        this.partitions = partitions;
+        this.workerPool = mode == OutboxPublishMode.SKIP_LOCKED
+                ? Executors.newFixedThreadPool(this.workers, workerThreads.factory("outbox-worker-"))
+                : null;
     }
 
-    @Scheduled(fixedDelay = 1000)
+    // ticks at the shortest interval; pollIntervalMs decides which ticks actually poll
+    @Scheduled(fixedDelayString = "${orderflow.outbox.min-poll-interval-ms:50}")
     public void publishUnprocessedEvents() {
-        Optional<String> lockToken = lockManager.tryAcquireLock(OUTBOX_LOCK_NAME, OUTBOX_LOCK_TTL);
-        if (lockToken.isEmpty()) {
-            return;
-        }
-
-        String token = lockToken.get();
+        publishLock.lock();
         try {
-            doPublishUnprocessedEvents();
+            if (System.currentTimeMillis() < nextPollAtMillis) {
+                return;
+            }
+
+            if (mode == OutboxPublishMode.SKIP_LOCKED) {
+                dispatchWorkers();
+                return;
+            }
+
+            Optional<LockLease> lease = lockManager.tryAcquire(OUTBOX_LOCK_NAME, OUTBOX_LOCK_LEASE);
+            if (lease.isEmpty()) {
+                return;
+            }
+
+            try (LockLease leader = lease.get()) {
+                drain(leader::isHeld);
+            } finally {
+                nextPollAtMillis = System.currentTimeMillis() + pollIntervalMs;
+            }
         } finally {
-            lockManager.releaseLock(OUTBOX_LOCK_NAME, token);
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Drains now instead of at the next poll, e.g. when {@link OutboxNotificationListener} sees a committed insert.
+     */
+    public void wakeUp() {
+        wakePending = true;
+        nextPollAtMillis = 0;
+        publishUnprocessedEvents();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workerPool != null) {
+            workerPool.shutdown();
         }
     }
 
     protected void doPublishUnprocessedEvents() {
-        List<OutboxEvent> events = outboxEventRepository
-                .findTop100ByProcessedAtIsNullOrderByCreatedAtAsc();
+        drain(() -> true);
+    }
 
-        if (events.isEmpty()) {
-            return;
+    private void drain(BooleanSupplier stillOwner) {
+        long deadline = System.currentTimeMillis() + DRAIN_BUDGET.toMillis();
+        int published = 0;
+        boolean backlog;
+        boolean contended = false;
+
+        do {
+            if (!stillOwner.getAsBoolean()) {
+                log.warn("OutboxPublisher: lost the publisher lease, stopping after {} events", published);
+                backlog = false;
+                break;
+            }
+            int limit = batchSize;
+            BatchOutcome outcome = mode == OutboxPublishMode.SKIP_LOCKED
+                    ? transactionTemplate.execute(status -> publishClaimedBatch(limit))
+                    : publishFetchedBatch(limit, stillOwner);
+            if (outcome == null || outcome.fetched() == 0) {
+                // partitions locked by other workers still have work, so this is no reason to back off
+                contended = outcome != null && outcome.contended();
+                backlog = false;
+                break;
+            }
+
+            published += outcome.acknowledged();
+
+            // a partially failed batch usually means the broker is struggling; let it recover before the next poll
+            backlog = outcome.fetched() == limit && outcome.acknowledged() == outcome.fetched();
+            adaptBatchSize(limit, outcome.fetched());
+        } while (backlog && System.currentTimeMillis() < deadline);
+
+        adaptPollInterval(published, backlog || contended);
+    }
+
+    // callers hold publishLock, so checking and incrementing activeWorkers cannot race
+    private void dispatchWorkers() {
+        while (activeWorkers.get() < workers) {
+            activeWorkers.incrementAndGet();
+            workerPool.execute(() -> {
+                try {
+                    // a wake-up that found every worker busy is picked up by the next worker to finish
+                    do {
+                        wakePending = false;
+                        doPublishUnprocessedEvents();
+                    } while (wakePending);
+                } catch (RuntimeException ex) {
+                    log.error("OutboxPublisher: worker drain failed: {}", ex.getMessage(), ex);
+                } finally {
+                    nextPollAtMillis = System.currentTimeMillis() + pollIntervalMs;
+                    activeWorkers.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private BatchOutcome publishFetchedBatch(int limit, BooleanSupplier stillOwner) {
+        List<OutboxEvent> events = outboxEventRepository.findByProcessedAtIsNullOrderByCreatedAtAsc(Limit.of(limit));
+        return new BatchOutcome(events.size(), events.isEmpty() ? 0 : publishBatch(events, stillOwner), false);
+    }
+
+    // the claimed rows stay locked until the enclosing transaction commits the processed marks
+    private BatchOutcome publishClaimedBatch(int limit) {
+        ClaimedBatch claimed = claimBatch(limit);
+        List<OutboxEvent> events = claimed.events();
+        return new BatchOutcome(events.size(), events.isEmpty() ? 0 : publishBatch(events), claimed.contended());
+    }
+
+    // sweeps the partitions until one has rows, so an empty result means the whole table was looked at
+    private ClaimedBatch claimBatch(int limit) {
+        if (partitions <= 1) {
+            return new ClaimedBatch(outboxEventRepository.claimUnprocessed(limit), false);
+        }
+
+        boolean contended = false;
+        int start = Math.floorMod(nextPartition.getAndIncrement(), partitions);
+        for (int i = 0; i < partitions; i++) {
+            int partition = (start + i) % partitions;
+            if (!outboxEventRepository.tryLockPartition(PARTITION_LOCK_CLASS, partition)) {
+                contended = true;
+                continue;
+            }
+            List<OutboxEvent> events = outboxEventRepository.claimUnprocessedInPartition(partition, partitions, limit);
+            if (!events.isEmpty()) {
+                return new ClaimedBatch(events, contended);
+            }
         }
+        return new ClaimedBatch(List.of(), contended);
+    }
 
-        log.info("OutboxPublisher: found {} unprocessed events", events.size());
+    int publishBatch(List<OutboxEvent> events) {
+        return publishBatch(events, () -> true);
+    }
 
+    // ownership is re-checked where a paused node would do harm: before sending and before marking processed
+    private int publishBatch(List<OutboxEvent> events, BooleanSupplier stillOwner) {
+        if (!stillOwner.getAsBoolean()) {
+            log.warn("OutboxPublisher: lost the publisher lease, not sending a batch of {} events", events.size());
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(events.size());
         for (OutboxEvent event : events) {
-            try {
-                publishSingleEvent(event);
-            } catch (Exception ex) {
-                log.error(
-                        "Failed to publish outbox event id={} aggregateType={} eventType={}: {}",
-                        event.getId(), event.getAggregateType(), event.getEventType(), ex.getMessage(), ex
-                );
+            futures.add(send(event));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            // individual failures are reported below
+        } catch (TimeoutException ex) {
+            log.warn("OutboxPublisher: batch not fully acknowledged within {} ms", sendTimeoutMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<OutboxEvent> acknowledged = new ArrayList<>(events.size());
+        Set<UUID> heldBackAggregates = new HashSet<>();
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            CompletableFuture<SendResult<String, String>> future = futures.get(i);
+
+            boolean sent = future.isDone() && !future.isCompletedExceptionally();
+            if (sent && !heldBackAggregates.contains(event.getAggregateId())) {
+                acknowledged.add(event);
+                continue;
             }
+            heldBackAggregates.add(event.getAggregateId());
+            if (future.isCompletedExceptionally()) {
+                logFailure(event, future);
+            }
+        }
+
+        List<UUID> acknowledgedIds = acknowledged.stream().map(OutboxEvent::getId).toList();
+        if (!acknowledgedIds.isEmpty() && !stillOwner.getAsBoolean()) {
+            // the new leader may already be sending these rows; leaving them unprocessed costs a duplicate at most
+            log.warn("OutboxPublisher: lost the publisher lease mid-batch, leaving {} sent events to the new leader",
+                    acknowledgedIds.size());
+            return 0;
         }
+        if (!acknowledgedIds.isEmpty()) {
+            Instant processedAt = Instant.now();
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markProcessed(acknowledgedIds, processedAt));
+            recordPublished(acknowledged, processedAt);
+        }
+        publishedCounter.increment(acknowledgedIds.size());
+        failedCounter.increment(events.size() - acknowledgedIds.size());
+
+        log.info("OutboxPublisher: published {}/{} events (batchSize={})",
+                acknowledgedIds.size(), events.size(), batchSize);
+        return acknowledgedIds.size();
     }
 
-    @Transactional
-    protected void publishSingleEvent(OutboxEvent event) throws Exception {
-        String topic = resolveTopic(event);
-        String key = event.getAggregateId().toString();
-        String payload = event.getPayload();
+    private void recordPublished(List<OutboxEvent> acknowledged, Instant processedAt) {
+        for (OutboxEvent event : acknowledged) {
+            if (event.getCreatedAt() != null) {
+                publishLag.record(Duration.between(event.getCreatedAt(), processedAt));
+            }
+        }
+    }
 
-        var result = kafkaTemplate.send(topic, key, payload).get();
-        RecordMetadata metadata = result.getRecordMetadata();
+    int getBatchSize() {
+        return batchSize;
+    }
 
-        event.setProcessedAt(Instant.now());
-        outboxEventRepository.save(event);
+    long getPollIntervalMs() {
+        return pollIntervalMs;
+    }
 
-        log.info(
-                "Published outbox event id={} to topic={} partition={} offset={}",
-                event.getId(), topic, metadata.partition(), metadata.offset()
+    private CompletableFuture<SendResult<String, String>> send(OutboxEvent event) {
+        try {
+            return kafkaTemplate.send(resolveTopic(event), event.getAggregateId().toString(), event.getPayload());
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private synchronized void adaptBatchSize(int limit, int fetched) {
+        if (fetched == limit) {
+            batchSize = Math.min(maxBatchSize, limit * 2);
+        } else if (fetched < limit / 4) {
+            batchSize = Math.max(minBatchSize, limit / 2);
+        }
+    }
+
+    private synchronized void adaptPollInterval(int published, boolean backlog) {
+        if (backlog || published > 0) {
+            pollIntervalMs = minPollIntervalMs;
+        } else {
+            pollIntervalMs = Math.min(maxPollIntervalMs, pollIntervalMs * 2);
+        }
+    }
+
+    private void logFailure(OutboxEvent event, CompletableFuture<SendResult<String, String>> future) {
+        Throwable cause;
+        try {
+            future.join();
+            return;
+        } catch (CompletionException ex) {
+            cause = ex.getCause() != null ? ex.getCause() : ex;
+        } catch (RuntimeException ex) {
+            cause = ex;
+        }
+
+        log.error(
+                "Failed to publish outbox event id={} aggregateType={} eventType={}: {}",
+                event.getId(), event.getAggregateType(), event.getEventType(), cause.getMessage(), cause
         );
     }
 
+
     private String resolveTopic(OutboxEvent event) {
         if ("PAYMENT".equalsIgnoreCase(event.getAggregateType())) {
             return PAYMENT_EVENTS_TOPIC;
         }
         return DEFAULT_TOPIC;
     }
+
+    private record BatchOutcome(int fetched, int acknowledged, boolean contended) {
+    }
+
+    // contended: at least one partition was skipped because another worker held its lock
+    private record ClaimedBatch(List<OutboxEvent> events, boolean contended) {
+    }
 }
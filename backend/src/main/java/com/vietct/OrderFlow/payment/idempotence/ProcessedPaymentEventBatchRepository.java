@@ -0,0 +1,17 @@
+package com.vietct.OrderFlow.payment.idempotence;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface ProcessedPaymentEventBatchRepository {
+
+    /**
+     * Inserts a processed marker for every payment id that has none yet, in one statement. Concurrent callers
+     * claiming the same id cannot both get it back.
+     *
+     * @return the payment ids claimed by this call
+     */
+    List<UUID> claimUnprocessed(Collection<UUID> paymentIds, String eventType, Instant processedAt);
+}
@@ -0,0 +1,44 @@
+package com.vietct.OrderFlow.payment.idempotence;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+public class ProcessedPaymentEventBatchRepositoryImpl implements ProcessedPaymentEventBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProcessedPaymentEventBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<UUID> claimUnprocessed(Collection<UUID> paymentIds, String eventType, Instant processedAt) {
+        if (paymentIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<Object> args = new ArrayList<>(paymentIds.size() * 3);
+        StringJoiner values = new StringJoiner(", ");
+        Timestamp processedAtTimestamp = Timestamp.from(processedAt);
+        for (UUID paymentId : paymentIds) {
+            values.add("(CAST(? AS uuid), ?, ?)");
+            args.add(paymentId);
+            args.add(eventType);
+            args.add(processedAtTimestamp);
+        }
+
+        String sql = "INSERT INTO processed_payment_event (payment_id, event_type, processed_at) " +
+                "VALUES " + values + " " +
+                "ON CONFLICT (payment_id) DO NOTHING " +
+                "RETURNING payment_id";
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getObject(1, UUID.class), args.toArray());
+    }
+}
@@ -4,5 +4,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.UUID;
 
-public interface ProcessedPaymentEventRepository extends JpaRepository<ProcessedPaymentEvent, UUID> {
+public interface ProcessedPaymentEventRepository extends JpaRepository<ProcessedPaymentEvent, UUID>,
+        ProcessedPaymentEventBatchRepository {
 }
@@ -0,0 +1,62 @@
+package com.vietct.OrderFlow.payment.service;
+
+import com.vietct.OrderFlow.common.concurrent.WorkerThreads;
+import com.vietct.OrderFlow.payment.event.PaymentCompletedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completes payments in {@link PaymentCompletionMode#AFTER_COMMIT} mode: once the checkout transaction commits,
+ * the event is handed to a small worker pool that runs {@link PaymentEventProcessor#handlePaymentsCompleted} in
+ * its own transaction. When the queue is full the committing thread completes the payment itself.
+ */
+@Component
+@ConditionalOnProperty(name = "orderflow.payment.completion.mode", havingValue = "AFTER_COMMIT")
+public class PaymentCompletionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentCompletionListener.class);
+
+    private final PaymentEventProcessor paymentEventProcessor;
+    private final ExecutorService workerPool;
+
+    public PaymentCompletionListener(PaymentEventProcessor paymentEventProcessor,
+                                     WorkerThreads workerThreads,
+                                     @Value("${orderflow.payment.completion.workers:2}") int workers,
+                                     @Value("${orderflow.payment.completion.queue-capacity:10000}") int queueCapacity) {
+        this.paymentEventProcessor = paymentEventProcessor;
+        this.workerPool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), workerThreads.factory("payment-completion-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPaymentCompleted(PaymentCompletedEvent event) {
+        workerPool.execute(() -> complete(event));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workerPool.shutdown();
+    }
+
+    private void complete(PaymentCompletedEvent event) {
+        try {
+            paymentEventProcessor.handlePaymentsCompleted(List.of(event));
+        } catch (RuntimeException ex) {
+            log.error("PaymentCompletionListener: completing payment {} for order {} failed, left to the payment.events consumer: {}",
+                    event.paymentId(), event.orderId(), ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.vietct.OrderFlow.payment.service;
+
+public enum PaymentCompletionMode {
+    /** The order is marked PAID, deduplicated and notified inside the checkout transaction. */
+    INLINE,
+    /**
+     * Checkout only writes the payment and its outbox row; {@link PaymentCompletionListener} completes it on a
+     * worker once the transaction commits. A crash in between is covered by the Kafka consumer, if it runs.
+     */
+    AFTER_COMMIT,
+    /** Checkout only writes the payment and its outbox row; {@link PaymentEventConsumer} completes it (kafka profile). */
+    OUTBOX
+}
@@ -0,0 +1,56 @@
+package com.vietct.OrderFlow.payment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vietct.OrderFlow.payment.event.PaymentCompletedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consumes {@code payment.events} one poll at a time and hands the whole batch to
+ * {@link PaymentEventProcessor#handlePaymentsCompleted}, so a batch costs the same few statements however many
+ * records it holds. Records are keyed by payment id; throughput scales with the topic's partitions up to
+ * {@code orderflow.payment.consumer.concurrency} consumers per node.
+ */
+@Component
+@Profile("kafka")
+public class PaymentEventConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentEventConsumer.class);
+
+    private static final String PAYMENT_EVENTS_TOPIC = "payment.events";
+
+    private final PaymentEventProcessor paymentEventProcessor;
+    private final ObjectMapper objectMapper;
+
+    public PaymentEventConsumer(PaymentEventProcessor paymentEventProcessor, ObjectMapper objectMapper) {
+        this.paymentEventProcessor = paymentEventProcessor;
+        this.objectMapper = objectMapper;
+    }
+
+    // a failing batch is retried as a whole by the container; handling is idempotent per payment
+    @KafkaListener(id = "payment-events",
+            topics = PAYMENT_EVENTS_TOPIC,
+            groupId = "${orderflow.payment.consumer.group-id:orderflow-payments}",
+            concurrency = "${orderflow.payment.consumer.concurrency:3}",
+            batch = "true")
+    public void onPaymentEvents(List<ConsumerRecord<String, String>> records) {
+        List<PaymentCompletedEvent> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                events.add(objectMapper.readValue(record.value(), PaymentCompletedEvent.class));
+            } catch (JsonProcessingException ex) {
+                log.error("PaymentEventConsumer: skipping malformed record {}-{}@{}: {}",
+                        record.topic(), record.partition(), record.offset(), ex.getMessage());
+            }
+        }
+        paymentEventProcessor.handlePaymentsCompleted(events);
+    }
+}
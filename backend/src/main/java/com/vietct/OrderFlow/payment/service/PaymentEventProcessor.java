@@ -2,7 +2,15 @@ package com.vietct.OrderFlow.payment.service;
 
 import com.vietct.OrderFlow.payment.event.PaymentCompletedEvent;
 
+import java.util.List;
+
 public interface PaymentEventProcessor {
 
     void handlePaymentCompleted(PaymentCompletedEvent event);
+
+    /**
+     * Handles a batch with a fixed number of statements: one to claim the processed markers, one to mark the
+     * orders paid. Events that were already processed are skipped.
+     */
+    void handlePaymentsCompleted(List<PaymentCompletedEvent> events);
 }
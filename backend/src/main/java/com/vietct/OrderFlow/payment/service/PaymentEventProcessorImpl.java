@@ -4,6 +4,7 @@ import com.vietct.OrderFlow.notification.service.NotificationService;
 import com.vietct.OrderFlow.order.domain.Order;
 import com.vietct.OrderFlow.order.domain.OrderStatus;
 import com.vietct.OrderFlow.order.exception.OrderNotFoundException;
+import com.vietct.OrderFlow.order.repository.OrderPaymentRepository.PaidOrder;
 import com.vietct.OrderFlow.order.repository.OrderRepository;
 import com.vietct.OrderFlow.payment.event.PaymentCompletedEvent;
 import com.vietct.OrderFlow.payment.idempotence.ProcessedPaymentEvent;
@@ -11,8 +12,15 @@ import com.vietct.OrderFlow.payment.idempotence.ProcessedPaymentEventRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -65,4 +73,45 @@ public class PaymentEventProcessorImpl implements PaymentEventProcessor {
 
         notificationService.notifyOrderPaid(order.getId(), order.getUserId(), event.amount());
     }
+
+    @Override
+    @Transactional
+    public void handlePaymentsCompleted(List<PaymentCompletedEvent> events) {
+        Map<UUID, PaymentCompletedEvent> eventsByPaymentId = new LinkedHashMap<>();
+        for (PaymentCompletedEvent event : events) {
+            eventsByPaymentId.putIfAbsent(event.paymentId(), event);
+        }
+        if (eventsByPaymentId.isEmpty()) {
+            return;
+        }
+
+        List<UUID> claimed = processedPaymentEventRepository.claimUnprocessed(
+                eventsByPaymentId.keySet(), EVENT_TYPE_PAYMENT_COMPLETED, Instant.now());
+        if (claimed.isEmpty()) {
+            log.info("All {} PaymentCompletedEvents already processed, skipping", eventsByPaymentId.size());
+            return;
+        }
+
+        Set<UUID> orderIds = new LinkedHashSet<>();
+        for (UUID paymentId : claimed) {
+            orderIds.add(eventsByPaymentId.get(paymentId).orderId());
+        }
+        Map<UUID, PaidOrder> paidOrders = new HashMap<>();
+        for (PaidOrder order : orderRepository.markPaid(orderIds)) {
+            paidOrders.put(order.orderId(), order);
+        }
+
+        for (UUID paymentId : claimed) {
+            PaymentCompletedEvent event = eventsByPaymentId.get(paymentId);
+            PaidOrder order = paidOrders.get(event.orderId());
+            if (order == null) {
+                log.warn("Order {} no longer exists, payment {} recorded without notification", event.orderId(), paymentId);
+                continue;
+            }
+            notificationService.notifyOrderPaid(order.orderId(), order.userId(), event.amount());
+        }
+
+        log.info("Marked {} orders PAID for {} new of {} PaymentCompletedEvents",
+                paidOrders.size(), claimed.size(), eventsByPaymentId.size());
+    }
 }
@@ -9,8 +9,13 @@ import com.vietct.OrderFlow.payment.domain.Payment;
 import com.vietct.OrderFlow.payment.domain.PaymentStatus;
 import com.vietct.OrderFlow.payment.event.PaymentCompletedEvent;
 import com.vietct.OrderFlow.payment.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,25 +29,58 @@ public class PaymentServiceImpl implements PaymentService {
 
     private static final String AGGREGATE_TYPE_PAYMENT = "PAYMENT";
     private static final String EVENT_TYPE_PAYMENT_COMPLETED = "PAYMENT_COMPLETED";
+    private static final String PROCESS_PAYMENT_TIMER = "orderflow.payment.process";
 
     private final PaymentRepository paymentRepository;
     private final OutboxEventRepository outboxEventRepository;
     private final ObjectMapper objectMapper;
     private final PaymentEventProcessor paymentEventProcessor;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PaymentCompletionMode completionMode;
 
     public PaymentServiceImpl(PaymentRepository paymentRepository,
                               OutboxEventRepository outboxEventRepository,
                               ObjectMapper objectMapper,
-                              PaymentEventProcessor paymentEventProcessor) {
+                              PaymentEventProcessor paymentEventProcessor,
+                              MeterRegistry meterRegistry,
+                              ApplicationEventPublisher eventPublisher,
+                              ObjectProvider<PaymentEventConsumer> paymentEventConsumer,
+                              @Value("${orderflow.payment.completion.mode:INLINE}") PaymentCompletionMode completionMode) {
         this.paymentRepository = paymentRepository;
         this.outboxEventRepository = outboxEventRepository;
         this.objectMapper = objectMapper;
         this.paymentEventProcessor = paymentEventProcessor;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.completionMode = completionMode;
+
+        // outside INLINE the payment.events consumer is what completes, or backs up, payments after checkout
+        if (completionMode != PaymentCompletionMode.INLINE && paymentEventConsumer.getIfAvailable() == null) {
+            if (completionMode == PaymentCompletionMode.OUTBOX) {
+                throw new IllegalStateException(
+                        "orderflow.payment.completion.mode=OUTBOX requires the kafka profile, otherwise orders stay PENDING");
+            }
+            log.warn("PaymentServiceImpl: AFTER_COMMIT without the kafka profile, a completion lost after commit "
+                    + "(crash or failure) leaves its order PENDING with nothing to retry it");
+        }
     }
 
     @Override
     @Transactional
     public Payment processPayment(Order order, BigDecimal amount, String paymentMethod) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            Payment payment = doProcessPayment(order, amount, paymentMethod);
+            outcome = "success";
+            return payment;
+        } finally {
+            sample.stop(meterRegistry.timer(PROCESS_PAYMENT_TIMER, "outcome", outcome));
+        }
+    }
+
+    private Payment doProcessPayment(Order order, BigDecimal amount, String paymentMethod) {
         Payment payment = new Payment();
         payment.setOrder(order);
         payment.setAmount(amount);
@@ -59,7 +97,14 @@ public class PaymentServiceImpl implements PaymentService {
                 Instant.now()
         );
 
-        paymentEventProcessor.handlePaymentCompleted(event);
+        // outside INLINE the order stays PENDING until completion runs after commit
+        switch (completionMode) {
+            case INLINE -> paymentEventProcessor.handlePaymentCompleted(event);
+            case AFTER_COMMIT -> eventPublisher.publishEvent(event);
+            case OUTBOX -> {
+                // completed by PaymentEventConsumer once the outbox row reaches payment.events
+            }
+        }
 
         String payloadJson = toJson(event);
 
@@ -0,0 +1,25 @@
+-- Durable queue for asynchronous checkout (async-orders profile). The row id is handed to the
+-- client and becomes the order id; the row is deleted once the order exists and kept as FAILED
+-- when it cannot be placed.
+
+CREATE TABLE order_intake (
+    id              UUID PRIMARY KEY,
+    payload         TEXT        NOT NULL,
+    status          VARCHAR(16) NOT NULL,
+    attempts        INT         NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ NOT NULL,
+    claimed_at      TIMESTAMPTZ,
+    failure_reason  VARCHAR(500),
+    created_at      TIMESTAMPTZ NOT NULL,
+    updated_at      TIMESTAMPTZ NOT NULL
+);
+
+-- workers claim due rows in next_attempt_at order
+CREATE INDEX idx_order_intake_queued
+    ON order_intake (next_attempt_at)
+    WHERE status = 'QUEUED';
+
+-- claims whose worker died are found by age
+CREATE INDEX idx_order_intake_processing
+    ON order_intake (claimed_at)
+    WHERE status = 'PROCESSING';
@@ -0,0 +1,42 @@
+-- A day's partition cannot be created while outbox_event_default holds rows of that day, which left maintenance
+-- failing on every run after an outage. The rows are now moved into a standalone table first, and that table is
+-- attached as the day's partition.
+-- Before the move the function locks outbox_event in SHARE ROW EXCLUSIVE mode, then outbox_event_default in ACCESS
+-- EXCLUSIVE mode, the order ATTACH locks them in. Without that, a row inserted between the DELETE and the ATTACH
+-- would stay in the default partition, fail ATTACH's scan of it, and roll the rescue back on every run under load.
+-- The parent lock also makes a waiting insert route its row after the commit, into the new partition, rather than
+-- into the default one it had picked before waiting. So every outbox insert and processed mark blocks until the
+-- rescue commits; reads of other partitions keep going. This only runs after an outage left rows in the default
+-- partition. The advisory lock serializes nodes creating the same partition.
+
+CREATE OR REPLACE FUNCTION ensure_outbox_event_partition(p_day DATE) RETURNS VOID AS $$
+DECLARE
+    partition_name TEXT := 'outbox_event_p' || to_char(p_day, 'YYYYMMDD');
+    lower_bound TIMESTAMPTZ := p_day::timestamp AT TIME ZONE 'UTC';
+    upper_bound TIMESTAMPTZ := (p_day + 1)::timestamp AT TIME ZONE 'UTC';
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('ensure_outbox_event_partition'));
+
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM outbox_event_default
+                   WHERE created_at >= lower_bound AND created_at < upper_bound) THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF outbox_event FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, lower_bound, upper_bound);
+        RETURN;
+    END IF;
+
+    LOCK TABLE ONLY outbox_event IN SHARE ROW EXCLUSIVE MODE;
+    LOCK TABLE outbox_event_default IN ACCESS EXCLUSIVE MODE;
+
+    EXECUTE format('CREATE TABLE %I (LIKE outbox_event INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+    EXECUTE format('WITH moved AS ( '
+                   '    DELETE FROM outbox_event_default WHERE created_at >= %L AND created_at < %L RETURNING * '
+                   ') INSERT INTO %I SELECT * FROM moved',
+                   lower_bound, upper_bound, partition_name);
+    EXECUTE format('ALTER TABLE outbox_event ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, lower_bound, upper_bound);
+END;
+$$ LANGUAGE plpgsql;
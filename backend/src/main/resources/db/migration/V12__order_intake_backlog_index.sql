@@ -0,0 +1,10 @@
+-- The capacity check on every async submit counts QUEUED and PROCESSING rows together. Neither partial index
+-- from V10 implies that IN predicate, so the count scanned the whole table, FAILED rows included.
+CREATE INDEX idx_order_intake_backlog
+    ON order_intake (status)
+    WHERE status IN ('QUEUED', 'PROCESSING');
+
+-- FAILED rows are purged by age once clients have had time to read the reason
+CREATE INDEX idx_order_intake_failed
+    ON order_intake (updated_at)
+    WHERE status = 'FAILED';
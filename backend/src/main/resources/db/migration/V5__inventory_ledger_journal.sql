@@ -0,0 +1,19 @@
+-- Reservation journal for the in-memory hot-product stock ledger.
+-- Per node and product: SUM(CLAIM) - SUM(CONSUME) = units the node holds in memory,
+-- which are handed back to inventory when the node restarts.
+
+CREATE TABLE inventory_ledger_journal (
+    id          UUID PRIMARY KEY,
+    node_id     VARCHAR(64) NOT NULL,
+    product_id  UUID        NOT NULL,
+    entry_type  VARCHAR(16) NOT NULL,
+    quantity    INT         NOT NULL,
+    created_at  TIMESTAMPTZ NOT NULL,
+    CONSTRAINT fk_inventory_ledger_journal_product
+        FOREIGN KEY (product_id) REFERENCES product(id),
+    CONSTRAINT chk_inventory_ledger_journal_quantity
+        CHECK (quantity > 0)
+);
+
+CREATE INDEX idx_inventory_ledger_journal_node_id
+    ON inventory_ledger_journal (node_id);
@@ -0,0 +1,73 @@
+-- Range-partitions outbox_event by day (UTC) so processed days can be archived and dropped whole
+-- instead of deleted row by row. OutboxMaintenanceService keeps partitions created ahead of time.
+
+ALTER TABLE outbox_event RENAME TO outbox_event_legacy;
+ALTER TABLE outbox_event_legacy RENAME CONSTRAINT outbox_event_pkey TO outbox_event_legacy_pkey;
+DROP TRIGGER outbox_event_notify ON outbox_event_legacy;
+DROP INDEX idx_outbox_event_unprocessed;
+
+CREATE TABLE outbox_event (
+    id UUID NOT NULL,
+    aggregate_type VARCHAR(64) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL,
+    processed_at TIMESTAMPTZ NULL,
+    -- the partition key has to be part of the primary key
+    CONSTRAINT outbox_event_pkey PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- catches rows outside every daily partition so inserts never fail
+CREATE TABLE outbox_event_default PARTITION OF outbox_event DEFAULT;
+
+CREATE INDEX idx_outbox_event_unprocessed
+    ON outbox_event (created_at)
+    WHERE processed_at IS NULL;
+
+CREATE FUNCTION ensure_outbox_event_partition(p_day DATE) RETURNS VOID AS $$
+DECLARE
+    partition_name TEXT := 'outbox_event_p' || to_char(p_day, 'YYYYMMDD');
+BEGIN
+    IF to_regclass(partition_name) IS NULL THEN
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF outbox_event FOR VALUES FROM (%L) TO (%L)',
+            partition_name,
+            p_day::timestamp AT TIME ZONE 'UTC',
+            (p_day + 1)::timestamp AT TIME ZONE 'UTC');
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT ensure_outbox_event_partition(day::date)
+FROM generate_series(
+        date_trunc('day', COALESCE((SELECT MIN(created_at) FROM outbox_event_legacy), CURRENT_TIMESTAMP)
+            AT TIME ZONE 'UTC'),
+        date_trunc('day', CURRENT_TIMESTAMP AT TIME ZONE 'UTC') + INTERVAL '3 days',
+        INTERVAL '1 day') AS day;
+
+INSERT INTO outbox_event (id, aggregate_type, aggregate_id, event_type, payload, created_at, updated_at, processed_at)
+SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at, updated_at, processed_at
+FROM outbox_event_legacy;
+
+DROP TABLE outbox_event_legacy;
+
+CREATE TRIGGER outbox_event_notify
+    AFTER INSERT ON outbox_event
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION notify_outbox_event();
+
+-- Processed events from dropped partitions; no secondary indexes beyond a BRIN on the time column
+CREATE TABLE outbox_event_archive (
+    id UUID NOT NULL,
+    aggregate_type VARCHAR(64) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    processed_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX idx_outbox_event_archive_processed_at
+    ON outbox_event_archive USING BRIN (processed_at);
@@ -0,0 +1,17 @@
+-- Full-text and trigram search for products, replacing lower(...) LIKE '%text%' scans.
+-- search_vector weights the name above the description; prefix matches use tsquery ':*'
+-- and typo-tolerant matches use pg_trgm word similarity on the name.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE product
+    ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX idx_product_search_vector
+    ON product USING GIN (search_vector);
+
+CREATE INDEX idx_product_name_trgm
+    ON product USING GIN (name gin_trgm_ops);
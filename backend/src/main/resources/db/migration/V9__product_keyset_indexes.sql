@@ -0,0 +1,18 @@
+-- Composite indexes for keyset pagination of products: every sort key is paired with id,
+-- so "(sort_key, id) < (:value, :id)" seeks straight to the next page instead of
+-- skipping OFFSET rows.
+
+CREATE INDEX idx_product_created_at_id
+    ON product (created_at, id);
+
+CREATE INDEX idx_product_price_id
+    ON product (price, id);
+
+CREATE INDEX idx_product_category_created_at_id
+    ON product (category_id, created_at, id);
+
+-- supersedes (category_id, price)
+DROP INDEX ix_product_category_price;
+
+CREATE INDEX idx_product_category_price_id
+    ON product (category_id, price, id);
@@ -2,25 +2,34 @@ package com.vietct.OrderFlow.catalog.service;
 
 import com.vietct.OrderFlow.catalog.domain.Category;
 import com.vietct.OrderFlow.catalog.domain.Product;
+import com.vietct.OrderFlow.catalog.dto.ProductResponseDTO;
+import com.vietct.OrderFlow.catalog.dto.ProductSearchCriteria;
 import com.vietct.OrderFlow.catalog.exception.CategoryNotFoundException;
 import com.vietct.OrderFlow.catalog.exception.ProductNotFoundException;
 import com.vietct.OrderFlow.catalog.repository.CategoryRepository;
 import com.vietct.OrderFlow.catalog.repository.ProductRepository;
+import com.vietct.OrderFlow.common.pagination.Cursor;
+import com.vietct.OrderFlow.common.pagination.CursorPage;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +41,9 @@ class CatalogServiceImplTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private ObjectProvider<ProductListingIndex> productListingIndex;
+
     @InjectMocks
     private CatalogServiceImpl catalogService;
 
@@ -151,4 +163,101 @@ class CatalogServiceImplTest {
         verify(categoryRepository).existsById(categoryId);
         verifyNoInteractions(productRepository);
     }
+
+    private ProductResponseDTO listing(UUID id, Instant createdAt) {
+        return new ProductResponseDTO(id, "Headphones", "Wireless", new BigDecimal("59.90"), 3, null,
+                UUID.randomUUID(), "Audio", "audio", null, createdAt, createdAt);
+    }
+
+    @Test
+    void searchProducts_withText_usesIndexedTextSearch() {
+        // Arrange
+        ProductSearchCriteria criteria = new ProductSearchCriteria("headphones", null, null, null, false);
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<ProductResponseDTO> page = new PageImpl<>(List.of(listing(UUID.randomUUID(), Instant.now())), pageable, 1);
+
+        when(productRepository.searchByText(criteria, pageable)).thenReturn(page);
+
+        // Act
+        Page<ProductResponseDTO> result = catalogService.searchProducts(criteria, pageable);
+
+        // Assert
+        assertThat(result).isSameAs(page);
+        verify(productRepository).searchByText(criteria, pageable);
+        verifyNoMoreInteractions(productRepository, categoryRepository);
+    }
+
+    @Test
+    void searchProducts_withoutText_projectsListingRows() {
+        // Arrange
+        ProductSearchCriteria criteria = new ProductSearchCriteria(null, UUID.randomUUID(), null, null, true);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt"));
+        Page<ProductResponseDTO> page = new PageImpl<>(List.of(listing(UUID.randomUUID(), Instant.now())), pageable, 1);
+
+        when(productRepository.findListings(any(), eq(pageable))).thenReturn(page);
+
+        // Act
+        Page<ProductResponseDTO> result = catalogService.searchProducts(criteria, pageable);
+
+        // Assert
+        assertThat(result).isSameAs(page);
+        verify(productRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void searchProducts_indexReady_loadsPageInIndexOrder() {
+        // Arrange
+        UUID firstId = UUID.randomUUID();
+        UUID secondId = UUID.randomUUID();
+        ProductResponseDTO first = listing(firstId, Instant.now());
+        ProductResponseDTO second = listing(secondId, Instant.now());
+
+        ProductSearchCriteria criteria = new ProductSearchCriteria(null, UUID.randomUUID(), null, null, true);
+        Pageable pageable = PageRequest.of(0, 2);
+        ProductListingIndex index = mock(ProductListingIndex.class);
+
+        when(productListingIndex.getIfAvailable()).thenReturn(index);
+        when(index.search(criteria, pageable))
+                .thenReturn(Optional.of(new PageImpl<>(List.of(firstId, secondId), pageable, 7)));
+        when(productRepository.findListingsByIdIn(List.of(firstId, secondId))).thenReturn(List.of(second, first));
+
+        // Act
+        Page<ProductResponseDTO> result = catalogService.searchProducts(criteria, pageable);
+
+        // Assert
+        assertThat(result.getContent()).containsExactly(first, second);
+        assertThat(result.getTotalElements()).isEqualTo(7);
+        verify(productRepository).findListingsByIdIn(List.of(firstId, secondId));
+        verifyNoMoreInteractions(productRepository, categoryRepository);
+    }
+
+    @Test
+    void scrollProducts_fetchesOneExtraRowAndContinuesFromCursor() {
+        // Arrange
+        UUID secondId = UUID.randomUUID();
+        ProductResponseDTO first = listing(UUID.randomUUID(), Instant.parse("2026-01-03T00:00:00Z"));
+        ProductResponseDTO second = listing(secondId, Instant.parse("2026-01-02T03:04:05.123456Z"));
+        ProductResponseDTO third = listing(UUID.randomUUID(), Instant.parse("2026-01-01T00:00:00Z"));
+
+        ProductSearchCriteria criteria = new ProductSearchCriteria(null, null, null, null, false);
+        Sort.Order order = Sort.Order.desc("createdAt");
+
+        when(productRepository.scroll(criteria, order, null, 3)).thenReturn(List.of(first, second, third));
+
+        // Act
+        CursorPage<ProductResponseDTO> page = catalogService.scrollProducts(criteria, order, null, 2);
+
+        // Assert
+        assertThat(page.content()).containsExactly(first, second);
+        assertThat(page.hasNext()).isTrue();
+        Cursor next = Cursor.decode(page.nextCursor());
+        assertThat(next.value()).isEqualTo("2026-01-02T03:04:05.123456Z");
+        assertThat(next.id()).isEqualTo(secondId);
+
+        // Act
+        catalogService.scrollProducts(criteria, order, page.nextCursor(), 2);
+
+        // Assert
+        verify(productRepository).scroll(criteria, order, next, 3);
+    }
 }
@@ -0,0 +1,156 @@
+package com.vietct.OrderFlow.catalog.service;
+
+import com.vietct.OrderFlow.catalog.domain.ProductChangedEvent;
+import com.vietct.OrderFlow.catalog.dto.ProductSearchCriteria;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductListingTableTest {
+
+    private static final UUID AUDIO = UUID.randomUUID();
+    private static final UUID SPORTS = UUID.randomUUID();
+
+    private final ProductListingTable index = new ProductListingTable();
+
+    private static ProductChangedEvent product(UUID id, String name, String description, String price, int stock,
+                                               UUID categoryId, long createdAtSeconds) {
+        return new ProductChangedEvent(id, name, description, new BigDecimal(price), stock, categoryId,
+                Instant.ofEpochSecond(createdAtSeconds), false);
+    }
+
+    private static ProductSearchCriteria category(UUID categoryId) {
+        return new ProductSearchCriteria(null, categoryId, null, null, false);
+    }
+
+    private static ProductSearchCriteria all() {
+        return new ProductSearchCriteria(null, null, null, null, false);
+    }
+
+    @Test
+    void search_textQuery_isLeftToTheDatabase() {
+        // Arrange
+        index.upsert(product(UUID.randomUUID(), "Wireless Headphones", "Noise-cancelling", "199.90", 5, AUDIO, 1));
+
+        // Act + Assert
+        assertThatThrownBy(() -> index.search(new ProductSearchCriteria("wire", null, null, null, false),
+                PageRequest.of(0, 10)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(index.search(new ProductSearchCriteria(" ", AUDIO, null, null, false), PageRequest.of(0, 10))
+                .getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void search_appliesCategoryPriceAndStockFilters() {
+        // Arrange
+        UUID cheap = UUID.randomUUID();
+        UUID boundary = UUID.randomUUID();
+        UUID soldOut = UUID.randomUUID();
+        UUID otherCategory = UUID.randomUUID();
+        index.upsert(product(cheap, "Cable", null, "9.99", 3, AUDIO, 1));
+        index.upsert(product(boundary, "Amp", null, "100.00", 3, AUDIO, 2));
+        index.upsert(product(soldOut, "Mixer", null, "50.00", 0, AUDIO, 3));
+        index.upsert(product(otherCategory, "Ball", null, "50.00", 3, SPORTS, 4));
+
+        ProductSearchCriteria criteria = new ProductSearchCriteria(null, AUDIO, new BigDecimal("10"),
+                new BigDecimal("100.00"), true);
+
+        // Act
+        Page<UUID> result = index.search(criteria, PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(result.getContent()).containsExactly(boundary);
+        assertThat(result.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void search_unsorted_returnsNewestFirst() {
+        // Arrange
+        UUID oldest = UUID.randomUUID();
+        UUID middle = UUID.randomUUID();
+        UUID newest = UUID.randomUUID();
+        index.upsert(product(middle, "Deck A", null, "10.00", 1, SPORTS, 20));
+        index.upsert(product(newest, "Board", "classic deck", "10.00", 1, SPORTS, 30));
+        index.upsert(product(oldest, "Deck B", null, "10.00", 1, SPORTS, 10));
+
+        // Act
+        Page<UUID> result = index.search(category(SPORTS), PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(result.getContent()).containsExactly(newest, middle, oldest);
+    }
+
+    @Test
+    void search_explicitSort_pagesThroughAllMatches() {
+        // Arrange
+        List<UUID> byPrice = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            UUID id = UUID.randomUUID();
+            byPrice.add(id);
+            index.upsert(product(id, "Item " + i, null, i + ".00", 1, SPORTS, 10 - i));
+        }
+
+        // Act
+        Page<UUID> second = index.search(all(), PageRequest.of(1, 2, Sort.by(Sort.Direction.ASC, "price")));
+
+        // Assert
+        assertThat(second.getContent()).containsExactly(byPrice.get(2), byPrice.get(3));
+        assertThat(second.getTotalElements()).isEqualTo(5);
+        assertThatThrownBy(() -> index.search(all(), PageRequest.of(0, 2, Sort.by("imagePath"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void upsert_replacesPreviousVersionAndDeleteRemovesProduct() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        index.upsert(product(id, "Old Name", null, "10.00", 1, AUDIO, 1));
+
+        // Act
+        index.upsert(product(id, "New Name", null, "10.00", 0, SPORTS, 1));
+        Page<UUID> inOldCategory = index.search(category(AUDIO), PageRequest.of(0, 10));
+        Page<UUID> inNewCategory = index.search(category(SPORTS), PageRequest.of(0, 10));
+        Page<UUID> inStock = index.search(new ProductSearchCriteria(null, SPORTS, null, null, true),
+                PageRequest.of(0, 10));
+        index.upsert(ProductChangedEvent.deleted(id));
+
+        // Assert
+        assertThat(inOldCategory.getContent()).isEmpty();
+        assertThat(inNewCategory.getContent()).containsExactly(id);
+        assertThat(inStock.getContent()).isEmpty();
+        assertThat(index.search(all(), PageRequest.of(0, 10)).getContent()).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void upsert_manyUpdates_compactsWithoutChangingResults() {
+        // Arrange
+        UUID stable = UUID.randomUUID();
+        UUID churned = UUID.randomUUID();
+        index.upsert(product(stable, "Stable Lamp", "warm light", "20.00", 2, AUDIO, 1));
+
+        // Act
+        for (int i = 0; i < 5_000; i++) {
+            index.upsert(product(churned, "Lamp v" + i, null, "30.00", i % 2, SPORTS, 2));
+        }
+
+        // Assert
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search(all(), PageRequest.of(0, 10)).getContent()).containsExactly(churned, stable);
+        assertThat(index.search(category(AUDIO), PageRequest.of(0, 10)).getContent()).containsExactly(stable);
+        assertThat(index.search(new ProductSearchCriteria(null, null, new BigDecimal("25"), null, false),
+                PageRequest.of(0, 10)).getContent()).containsExactly(churned);
+        assertThat(index.search(new ProductSearchCriteria(null, SPORTS, null, null, true), PageRequest.of(0, 10))
+                .getContent()).containsExactly(churned);
+    }
+}
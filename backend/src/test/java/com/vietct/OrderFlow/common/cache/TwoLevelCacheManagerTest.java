@@ -0,0 +1,122 @@
+package com.vietct.OrderFlow.common.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheManagerTest {
+
+    @Mock
+    private RedisCacheManager redisCacheManager;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ConcurrentMapCache remote;
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remote = spy(new ConcurrentMapCache("productById"));
+        when(redisCacheManager.getCache("productById")).thenReturn(remote);
+        cacheManager = new TwoLevelCacheManager(redisCacheManager, redisTemplate, objectMapper, 100, Duration.ofMinutes(1),
+                Map.of(), Runnable::run, Clock.systemUTC());
+    }
+
+    private DefaultMessage message(String origin, String cacheName, String key) throws Exception {
+        String json = objectMapper.writeValueAsString(new TwoLevelCacheManager.CacheInvalidation(origin, cacheName, key));
+        return new DefaultMessage(TwoLevelCacheManager.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void get_remoteHit_isServedLocallyAfterwards() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        remote.put(id, "product");
+        Cache cache = cacheManager.getCache("productById");
+
+        // Act
+        Object first = cache.get(id).get();
+        Object second = cache.get(id).get();
+
+        // Assert
+        assertThat(first).isEqualTo("product");
+        assertThat(second).isEqualTo("product");
+        verify(remote, times(1)).get(id);
+    }
+
+    @Test
+    void evict_dropsBothLevelsAndBroadcasts() throws Exception {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        Cache cache = cacheManager.getCache("productById");
+        cache.put(id, "product");
+
+        // Act
+        cache.evict(id);
+
+        // Assert
+        assertThat(cache.get(id)).isNull();
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(TwoLevelCacheManager.INVALIDATION_CHANNEL), payload.capture());
+        TwoLevelCacheManager.CacheInvalidation invalidation =
+                objectMapper.readValue(payload.getValue(), TwoLevelCacheManager.CacheInvalidation.class);
+        assertThat(invalidation.cacheName()).isEqualTo("productById");
+        assertThat(invalidation.key()).isEqualTo(id.toString());
+    }
+
+    @Test
+    void onMessage_fromOtherNode_dropsLocalCopyOnly() throws Exception {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        Cache cache = cacheManager.getCache("productById");
+        cache.put(id, "stale");
+        // another node already replaced the shared entry
+        remote.put(id, "fresh");
+
+        // Act
+        cacheManager.onMessage(message("other-node", "productById", id.toString()), null);
+
+        // Assert
+        assertThat(cache.get(id).get()).isEqualTo("fresh");
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void onMessage_clear_dropsWholeLocalCache() throws Exception {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache("productById");
+        cache.put(id, "product");
+
+        // Act
+        cacheManager.onMessage(message("other-node", "productById", null), null);
+
+        // Assert
+        assertThat(cache.getLocalCache().estimatedSize()).isZero();
+    }
+}
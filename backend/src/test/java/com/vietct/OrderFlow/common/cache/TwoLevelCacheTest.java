@@ -0,0 +1,181 @@
+package com.vietct.OrderFlow.common.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+
+    private static final String CACHE = "frontPageProducts";
+
+    @Mock
+    private RedisCacheManager redisCacheManager;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private final MutableClock clock = new MutableClock();
+    private final List<Runnable> scheduledRefreshes = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ConcurrentMapCache remote;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache(CACHE);
+    }
+
+    private Cache cacheWith(CacheRefreshPolicy policy) {
+        when(redisCacheManager.getCache(CACHE)).thenReturn(remote);
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(redisCacheManager, redisTemplate, new ObjectMapper(),
+                100, Duration.ofMinutes(10), Map.of(CACHE, policy), scheduledRefreshes::add, clock);
+        return manager.getCache(CACHE);
+    }
+
+    private String load() {
+        return "page-" + loads.incrementAndGet();
+    }
+
+    @Test
+    void get_withinTtl_servesCachedValueWithoutRefresh() {
+        // Arrange
+        Cache cache = cacheWith(new CacheRefreshPolicy(Duration.ofSeconds(30), Duration.ofSeconds(30), 0));
+        cache.get("default", this::load);
+        clock.advance(Duration.ofSeconds(29));
+
+        // Act
+        String value = cache.get("default", this::load);
+
+        // Assert
+        assertThat(value).isEqualTo("page-1");
+        assertThat(loads).hasValue(1);
+        assertThat(scheduledRefreshes).isEmpty();
+    }
+
+    @Test
+    void get_staleEntry_servesOldValueAndSchedulesOneRefresh() {
+        // Arrange
+        Cache cache = cacheWith(new CacheRefreshPolicy(Duration.ofSeconds(30), Duration.ofSeconds(30), 0));
+        cache.get("default", this::load);
+        clock.advance(Duration.ofSeconds(45));
+
+        // Act
+        String first = cache.get("default", this::load);
+        String second = cache.get("default", this::load);
+
+        // Assert
+        assertThat(first).isEqualTo("page-1");
+        assertThat(second).isEqualTo("page-1");
+        assertThat(scheduledRefreshes).hasSize(1);
+
+        scheduledRefreshes.get(0).run();
+        assertThat((String) cache.get("default", this::load)).isEqualTo("page-2");
+        assertThat(((RefreshableValue) remote.get("default").get()).value()).isEqualTo("page-2");
+    }
+
+    @Test
+    void get_pastStaleWindow_reloadsInline() {
+        // Arrange
+        Cache cache = cacheWith(new CacheRefreshPolicy(Duration.ofSeconds(30), Duration.ofSeconds(30), 0));
+        cache.get("default", this::load);
+        clock.advance(Duration.ofSeconds(61));
+
+        // Act
+        String value = cache.get("default", this::load);
+
+        // Assert
+        assertThat(value).isEqualTo("page-2");
+        assertThat(scheduledRefreshes).isEmpty();
+    }
+
+    @Test
+    void get_slowLoaderWithLargeBeta_refreshesBeforeTtl() {
+        // Arrange
+        Cache cache = cacheWith(new CacheRefreshPolicy(Duration.ofSeconds(30), Duration.ofSeconds(30), 1_000));
+        cache.get("default", () -> {
+            clock.advance(Duration.ofSeconds(1));
+            return load();
+        });
+        clock.advance(Duration.ofSeconds(25));
+
+        // Act
+        String value = cache.get("default", this::load);
+
+        // Assert
+        assertThat(value).isEqualTo("page-1");
+        assertThat(scheduledRefreshes).hasSize(1);
+    }
+
+    @Test
+    void get_plainValueFromOlderNode_isTreatedAsMiss() {
+        // Arrange
+        remote.put("default", "legacy");
+        Cache cache = cacheWith(new CacheRefreshPolicy(Duration.ofSeconds(30), Duration.ofSeconds(30), 0));
+
+        // Act
+        String value = cache.get("default", this::load);
+
+        // Assert
+        assertThat(value).isEqualTo("page-1");
+        assertThat(cache.get("default").get()).isEqualTo("page-1");
+    }
+
+    @Test
+    void refreshableValue_roundTripsThroughRedisSerializer() {
+        // Arrange
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+        RefreshableValue entry = new RefreshableValue(List.of("a", "b"), 1_000L, 25L);
+
+        // Act
+        Object restored = serializer.deserialize(serializer.serialize(entry));
+
+        // Assert
+        assertThat(restored).isEqualTo(entry);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
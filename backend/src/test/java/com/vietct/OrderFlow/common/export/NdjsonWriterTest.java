@@ -0,0 +1,43 @@
+package com.vietct.OrderFlow.common.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NdjsonWriterTest {
+
+    @Test
+    void write_terminatesEveryDocumentWithNewline() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        try (NdjsonWriter writer = new NdjsonWriter(new ObjectMapper(), out)) {
+            writer.write(Map.of("id", 1));
+            writer.write(Map.of("id", 2));
+        }
+
+        // Assert
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}\n{\"id\":2}\n");
+    }
+
+    @Test
+    void write_buffersRowsUntilClosed() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NdjsonWriter writer = new NdjsonWriter(new ObjectMapper(), out);
+
+        // Act
+        writer.write(Map.of("id", 1));
+
+        // Assert
+        assertThat(out.size()).isZero();
+        writer.close();
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}\n");
+    }
+}
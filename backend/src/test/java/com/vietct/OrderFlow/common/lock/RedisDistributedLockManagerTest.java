@@ -0,0 +1,177 @@
+package com.vietct.OrderFlow.common.lock;
+
+import com.vietct.OrderFlow.common.concurrent.WorkerThreads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("unchecked")
+class RedisDistributedLockManagerTest {
+
+    private static final List<String> ACQUIRE_KEYS = List.of("lock:{job}", "lock:{job}:fence");
+    private static final List<String> LOCK_KEY = List.of("lock:{job}");
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private RedisDistributedLockManager lockManager;
+
+    @BeforeEach
+    void setUp() {
+        lockManager = new RedisDistributedLockManager(redisTemplate, new SimpleMeterRegistry(), WorkerThreads.platform());
+    }
+
+    @AfterEach
+    void tearDown() {
+        lockManager.shutdown();
+    }
+
+    // chained rather than thenReturn(first, next...), which would build a generic array
+    private void acquireReplies(Long... replies) {
+        OngoingStubbing<Object> stubbing =
+                when(redisTemplate.execute(any(RedisScript.class), eq(ACQUIRE_KEYS), any(Object[].class)));
+        for (Long reply : replies) {
+            stubbing = stubbing.thenReturn(reply);
+        }
+    }
+
+    @Test
+    void tryAcquire_free_returnsLeaseWithFencingToken() {
+        // Arrange
+        acquireReplies(7L);
+
+        // Act
+        Optional<LockLease> lease = lockManager.tryAcquire("job", Duration.ofSeconds(30));
+
+        // Assert
+        assertThat(lease).hasValueSatisfying(held -> {
+            assertThat(held.fencingToken()).isEqualTo(7);
+            assertThat(held.isHeld()).isTrue();
+        });
+    }
+
+    @Test
+    void tryAcquire_heldByOtherNode_returnsEmpty() {
+        // Arrange
+        acquireReplies(-4000L);
+
+        // Act
+        Optional<LockLease> lease = lockManager.tryAcquire("job", Duration.ofSeconds(30));
+
+        // Assert
+        assertThat(lease).isEmpty();
+    }
+
+    @Test
+    void tryAcquire_heldOnThisNode_skipsRedisUntilClosed() {
+        // Arrange
+        acquireReplies(7L, 8L);
+        LockLease first = lockManager.tryAcquire("job", Duration.ofSeconds(30)).orElseThrow();
+
+        // Act
+        Optional<LockLease> whileHeld = lockManager.tryAcquire("job", Duration.ofSeconds(30));
+        first.close();
+        Optional<LockLease> afterClose = lockManager.tryAcquire("job", Duration.ofSeconds(30));
+
+        // Assert
+        assertThat(whileHeld).isEmpty();
+        assertThat(afterClose).hasValueSatisfying(held -> assertThat(held.fencingToken()).isEqualTo(8));
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), eq(ACQUIRE_KEYS), any(Object[].class));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(LOCK_KEY), anyString(),
+                eq(RedisDistributedLockManager.RELEASE_CHANNEL), eq("job"));
+    }
+
+    @Test
+    void watchdog_renewalRejected_marksLeaseLost() throws InterruptedException {
+        // Arrange
+        acquireReplies(7L, -4000L);
+        when(redisTemplate.execute(any(RedisScript.class), eq(LOCK_KEY), anyString(), anyString())).thenReturn(0L);
+        LockLease lease = lockManager.tryAcquire("job", Duration.ofMillis(60)).orElseThrow();
+
+        // Act
+        long deadline = System.currentTimeMillis() + 2000;
+        while (lease.isHeld() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertThat(lease.isHeld()).isFalse();
+        assertThat(lockManager.tryAcquire("job", Duration.ofMillis(60))).isEmpty();
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), eq(ACQUIRE_KEYS), any(Object[].class));
+    }
+
+    @Test
+    void watchdog_redisUnreachable_givesLeaseUpBeforeItExpires() throws InterruptedException {
+        // Arrange
+        acquireReplies(7L);
+        when(redisTemplate.execute(any(RedisScript.class), eq(LOCK_KEY), anyString(), anyString()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        long acquiredAt = System.currentTimeMillis();
+        LockLease lease = lockManager.tryAcquire("job", Duration.ofMillis(900)).orElseThrow();
+
+        // Act
+        long deadline = acquiredAt + 2000;
+        while (lease.isHeld() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        // Assert: the watchdog ticks every 300 ms and gives up on the tick one period before the expiry
+        assertThat(lease.isHeld()).isFalse();
+        assertThat(System.currentTimeMillis() - acquiredAt).isLessThan(900);
+    }
+
+    @Test
+    void acquire_releasePublishedWhileContended_retriesWithoutWaiting() throws InterruptedException {
+        // Arrange
+        DefaultMessage release = new DefaultMessage(
+                RedisDistributedLockManager.RELEASE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "job".getBytes(StandardCharsets.UTF_8));
+        when(redisTemplate.execute(any(RedisScript.class), eq(ACQUIRE_KEYS), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    lockManager.onMessage(release, null);
+                    return -60000L;
+                })
+                .thenReturn(9L);
+
+        // Act
+        long startedAt = System.nanoTime();
+        Optional<LockLease> lease = lockManager.acquire("job", Duration.ofSeconds(30), Duration.ofSeconds(30));
+
+        // Assert
+        assertThat(lease).hasValueSatisfying(held -> assertThat(held.fencingToken()).isEqualTo(9));
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofMillis(900));
+    }
+
+    @Test
+    void acquire_neverReleased_timesOut() throws InterruptedException {
+        // Arrange
+        when(redisTemplate.execute(any(RedisScript.class), eq(ACQUIRE_KEYS), any(Object[].class))).thenReturn(-60000L);
+
+        // Act
+        Optional<LockLease> lease = lockManager.acquire("job", Duration.ofSeconds(30), Duration.ofMillis(50));
+
+        // Assert
+        assertThat(lease).isEmpty();
+    }
+}
@@ -0,0 +1,56 @@
+package com.vietct.OrderFlow.common.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPageTest {
+
+    private static final UUID ID = UUID.fromString("7f0c1d8e-9a43-4c6e-8d2b-2f5a9e1b3c4d");
+
+    @Test
+    void of_extraRowFetched_trimsAndPointsAfterLastReturnedRow() {
+        // Act
+        CursorPage<String> page = CursorPage.of(List.of("a", "b", "c"), 2,
+                row -> new Cursor("createdAt", Sort.Direction.DESC, row, ID));
+
+        // Assert
+        assertThat(page.content()).containsExactly("a", "b");
+        assertThat(page.hasNext()).isTrue();
+        assertThat(Cursor.decode(page.nextCursor()).value()).isEqualTo("b");
+    }
+
+    @Test
+    void of_lastPage_hasNoCursor() {
+        // Act
+        CursorPage<String> page = CursorPage.of(List.of("a"), 2,
+                row -> new Cursor("createdAt", Sort.Direction.DESC, row, ID));
+
+        // Assert
+        assertThat(page.content()).containsExactly("a");
+        assertThat(page.hasNext()).isFalse();
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void cursor_roundTripsAndRejectsOtherSortOrGarbage() {
+        // Arrange
+        Cursor cursor = new Cursor("price", Sort.Direction.ASC, "19.90", ID);
+
+        // Act
+        Cursor decoded = Cursor.decode(cursor.encode());
+
+        // Assert
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.requireSort(Sort.Order.asc("price"))).isEqualTo(cursor);
+        assertThatThrownBy(() -> decoded.requireSort(Sort.Order.desc("price")))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> Cursor.decode("not a cursor!"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
@@ -0,0 +1,71 @@
+package com.vietct.OrderFlow.common.rate_limit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GcraRateLimiterTest {
+
+    private static final RateLimitProperties.Limit TWENTY_PER_MINUTE =
+            new RateLimitProperties.Limit(20, Duration.ofMinutes(1));
+    private static final RateLimitIdentity USER =
+            new RateLimitIdentity(RateLimitProperties.IdentityClass.USER, "u-1");
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private TokenBucketRateLimiter fallback;
+
+    @Mock
+    private RateLimitProperties properties;
+
+    @InjectMocks
+    private GcraRateLimiter rateLimiter;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryAcquire_mapsScriptReplyInOneCall() {
+        // Arrange
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("rl:gcra:orders:user:u-1")), eq("20"), eq("60000")))
+                .thenReturn(List.of(0L, 0L, 60000L, 2500L));
+
+        // Act
+        RateLimitDecision decision = rateLimiter.tryAcquire("orders", USER, TWENTY_PER_MINUTE);
+
+        // Assert
+        assertThat(decision).isEqualTo(new RateLimitDecision(false, 20, 0, 60, 3));
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), any(List.class), any(Object[].class));
+        verifyNoInteractions(fallback);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tryAcquire_redisDown_fallsBackToLocalBuckets() {
+        // Arrange
+        RateLimitDecision local = new RateLimitDecision(true, 20, 19, 3, 0);
+        when(redisTemplate.execute(any(RedisScript.class), any(List.class), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        when(fallback.tryAcquire("orders", USER, TWENTY_PER_MINUTE)).thenReturn(local);
+
+        // Act
+        RateLimitDecision decision = rateLimiter.tryAcquire("orders", USER, TWENTY_PER_MINUTE);
+
+        // Assert
+        assertThat(decision).isEqualTo(local);
+    }
+}
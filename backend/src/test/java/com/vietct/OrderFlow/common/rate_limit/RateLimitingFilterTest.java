@@ -0,0 +1,96 @@
+package com.vietct.OrderFlow.common.rate_limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitingFilterTest {
+
+    private static final RateLimitProperties.Limit LIMIT = new RateLimitProperties.Limit(20, Duration.ofMinutes(1));
+
+    @Mock
+    private TokenBucketRateLimiter tokenBucketRateLimiter;
+
+    @Mock
+    private GcraRateLimiter gcraRateLimiter;
+
+    private RateLimitingFilter filter(RateLimitProperties.Algorithm algorithm) {
+        RateLimitProperties properties = new RateLimitProperties(Map.of("orders", new RateLimitProperties.Endpoint(
+                "POST", "/orders", algorithm, Map.of(RateLimitProperties.IdentityClass.USER, LIMIT))));
+        return new RateLimitingFilter(tokenBucketRateLimiter, gcraRateLimiter, properties, new ObjectMapper(),
+                new SimpleMeterRegistry());
+    }
+
+    private MockHttpServletRequest checkout() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders");
+        request.addHeader("X-User-Id", "u-1");
+        return request;
+    }
+
+    @Test
+    void admitted_passesThroughWithRateLimitHeaders() throws Exception {
+        // Arrange
+        when(tokenBucketRateLimiter.tryAcquire(eq("orders"), any(), eq(LIMIT)))
+                .thenReturn(new RateLimitDecision(true, 20, 7, 39, 0));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter(RateLimitProperties.Algorithm.TOKEN_BUCKET).doFilter(checkout(), response, chain);
+
+        // Assert
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getHeader("RateLimit-Limit")).isEqualTo("20");
+        assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo("7");
+        assertThat(response.getHeader("RateLimit-Reset")).isEqualTo("39");
+        verifyNoInteractions(gcraRateLimiter);
+    }
+
+    @Test
+    void rejectedByGcra_returns429WithRetryAfter() throws Exception {
+        // Arrange
+        when(gcraRateLimiter.tryAcquire(eq("orders"), any(), eq(LIMIT)))
+                .thenReturn(new RateLimitDecision(false, 20, 0, 60, 3));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter(RateLimitProperties.Algorithm.GCRA).doFilter(checkout(), response, chain);
+
+        // Assert
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("3");
+        assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo("0");
+        verifyNoInteractions(tokenBucketRateLimiter);
+    }
+
+    @Test
+    void identityClassWithoutLimit_isNotThrottled() throws Exception {
+        // Arrange
+        MockHttpServletRequest anonymous = new MockHttpServletRequest("POST", "/orders");
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter(RateLimitProperties.Algorithm.TOKEN_BUCKET).doFilter(anonymous, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertThat(chain.getRequest()).isNotNull();
+        verifyNoInteractions(tokenBucketRateLimiter, gcraRateLimiter);
+    }
+}
@@ -0,0 +1,200 @@
+package com.vietct.OrderFlow.common.rate_limit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenBucketRateLimiterTest {
+
+    private static final RateLimitProperties.Limit TWENTY_PER_MINUTE =
+            new RateLimitProperties.Limit(20, Duration.ofMinutes(1));
+    private static final RateLimitIdentity USER =
+            new RateLimitIdentity(RateLimitProperties.IdentityClass.USER, "u-1");
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private final MutableClock clock = new MutableClock();
+
+    private TokenBucketRateLimiter rateLimiter() {
+        return new TokenBucketRateLimiter(redisTemplate, 1000, clock);
+    }
+
+    private int admit(TokenBucketRateLimiter rateLimiter, int attempts) {
+        int admitted = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (rateLimiter.tryAcquire("orders", USER, TWENTY_PER_MINUTE).allowed()) {
+                admitted++;
+            }
+        }
+        return admitted;
+    }
+
+    @Test
+    void tryAcquire_admitsBurstUpToLimitThenRefillsOverWindow() {
+        // Arrange
+        TokenBucketRateLimiter rateLimiter = rateLimiter();
+
+        // Act + Assert
+        assertThat(admit(rateLimiter, 25)).isEqualTo(20);
+
+        clock.advance(Duration.ofSeconds(3));
+        assertThat(admit(rateLimiter, 5)).isEqualTo(1);
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void tryAcquire_reportsRemainingAndWhenToRetry() {
+        // Arrange
+        TokenBucketRateLimiter rateLimiter = rateLimiter();
+        admit(rateLimiter, 19);
+
+        // Act
+        RateLimitDecision last = rateLimiter.tryAcquire("orders", USER, TWENTY_PER_MINUTE);
+        RateLimitDecision rejected = rateLimiter.tryAcquire("orders", USER, TWENTY_PER_MINUTE);
+
+        // Assert
+        assertThat(last.allowed()).isTrue();
+        assertThat(last.remaining()).isZero();
+        assertThat(last.resetSeconds()).isEqualTo(60);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterSeconds()).isEqualTo(3);
+    }
+
+    @Test
+    void sync_drainsWhatOtherNodesAdmitted() {
+        // Arrange
+        TokenBucketRateLimiter rateLimiter = rateLimiter();
+        admit(rateLimiter, 5);
+        // window total after our INCRBY 5: the other nodes admitted 10
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(15L, true));
+
+        // Act
+        rateLimiter.sync();
+
+        // Assert
+        assertThat(admit(rateLimiter, 10)).isEqualTo(5);
+    }
+
+    @Test
+    void sync_redisDown_reportsLocalCountsOnNextSync() {
+        // Arrange
+        TokenBucketRateLimiter rateLimiter = rateLimiter();
+        admit(rateLimiter, 3);
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn(List.of(3L, true));
+
+        // Act
+        rateLimiter.sync();
+        rateLimiter.sync();
+
+        // Assert: the 3 were reported as ours, nothing is drained
+        assertThat(admit(rateLimiter, 20)).isEqualTo(17);
+    }
+
+    @Test
+    void sync_saturatedNodes_admitOneLimitPerWindowBetweenThem() {
+        // Arrange: four nodes, each offered far more than the limit every sync interval
+        stubPipelineWithWindowCounters();
+        List<TokenBucketRateLimiter> nodes = List.of(rateLimiter(), rateLimiter(), rateLimiter(), rateLimiter());
+
+        // Act
+        int warmUpAdmitted = 0;
+        int steadyAdmitted = 0;
+        for (int tick = 0; tick < 20 * 60 * 2; tick++) {
+            for (TokenBucketRateLimiter node : nodes) {
+                int admitted = admit(node, 5);
+                if (tick < 2 * 60 * 2) {
+                    warmUpAdmitted += admitted;
+                } else {
+                    steadyAdmitted += admitted;
+                }
+            }
+            for (TokenBucketRateLimiter node : nodes) {
+                node.sync();
+            }
+            clock.advance(Duration.ofMillis(500));
+        }
+
+        // Assert: the cold burst overshoots once, after that the cluster holds ~20 per minute, not 4 x 20
+        assertThat(warmUpAdmitted).isLessThanOrEqualTo(4 * 20 + 2 * 20);
+        assertThat(steadyAdmitted).isBetween(18 * 20 - 20, 18 * 20 + 20);
+    }
+
+    // Runs each pipelined sync against in-memory window counters and answers with the replies Redis would give
+    private void stubPipelineWithWindowCounters() {
+        Map<String, Long> windowCounters = new HashMap<>();
+        List<Object> replies = new ArrayList<>();
+
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(stringCommands.incrBy(any(byte[].class), anyLong())).thenAnswer(invocation -> {
+            String key = new String(invocation.<byte[]>getArgument(0), StandardCharsets.UTF_8);
+            replies.add(windowCounters.merge(key, invocation.<Long>getArgument(1), Long::sum));
+            return null;
+        });
+        RedisKeyCommands keyCommands = mock(RedisKeyCommands.class);
+        when(keyCommands.expire(any(byte[].class), anyLong())).thenAnswer(invocation -> {
+            replies.add(true);
+            return null;
+        });
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            replies.clear();
+            invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            return List.copyOf(replies);
+        });
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:10Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
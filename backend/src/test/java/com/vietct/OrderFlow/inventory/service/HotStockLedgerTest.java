@@ -0,0 +1,52 @@
+package com.vietct.OrderFlow.inventory.service;
+
+import com.vietct.OrderFlow.inventory.repository.InventoryRepository;
+import com.vietct.OrderFlow.inventory.repository.LedgerJournalRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotStockLedgerTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private LedgerJournalRepository ledgerJournalRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private HotStockLedger ledger(StockReservationMode mode, String nodeId) {
+        return new HotStockLedger(inventoryRepository, ledgerJournalRepository, transactionManager,
+                mode, nodeId, List.of(), 8, 100);
+    }
+
+    @Test
+    void ledgerMode_withoutNodeId_failsFast() {
+        // Act + Assert
+        assertThatThrownBy(() -> ledger(StockReservationMode.LEDGER, ""))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("node-id");
+    }
+
+    @Test
+    void recover_outsideLedgerMode_leavesJournalAlone() {
+        // Arrange
+        HotStockLedger ledger = ledger(StockReservationMode.ATOMIC, "");
+
+        // Act
+        ledger.recover();
+
+        // Assert
+        verifyNoInteractions(ledgerJournalRepository, inventoryRepository, transactionManager);
+    }
+}
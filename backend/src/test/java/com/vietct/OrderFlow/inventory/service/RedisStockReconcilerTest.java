@@ -0,0 +1,69 @@
+package com.vietct.OrderFlow.inventory.service;
+
+import com.vietct.OrderFlow.common.lock.DistributedLockManager;
+import com.vietct.OrderFlow.common.lock.LockLease;
+import com.vietct.OrderFlow.inventory.repository.InventoryRepository;
+import com.vietct.OrderFlow.order.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisStockReconcilerTest {
+
+    @Mock
+    private RedisStockReservationService reservationService;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private DistributedLockManager lockManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private LockLease lease;
+
+    @Test
+    void reconcile_parksOnlyProductsTheInventoryRejected() {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RedisStockReconciler reconciler = new RedisStockReconciler(reservationService, inventoryRepository,
+                orderRepository, lockManager, transactionManager, meterRegistry);
+
+        UUID applied = UUID.randomUUID();
+        UUID rejected = UUID.randomUUID();
+        Map<UUID, Integer> settlement = Map.of(applied, 2, rejected, 4);
+
+        when(lockManager.tryAcquire(any(), any())).thenReturn(Optional.of(lease));
+        when(reservationService.findExpiredHolds(anyInt())).thenReturn(Set.of());
+        when(reservationService.claimSettlement()).thenReturn(settlement);
+        when(inventoryRepository.decrementAvailableQuantities(settlement)).thenReturn(List.of(applied));
+
+        // Act
+        reconciler.reconcile();
+
+        // Assert
+        verify(reservationService).completeSettlement(Set.of(rejected));
+        assertThat(meterRegistry.counter("orderflow.stock.settlement.dead_lettered").count()).isEqualTo(1);
+    }
+}
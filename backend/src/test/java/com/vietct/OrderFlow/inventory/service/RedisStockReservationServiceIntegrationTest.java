@@ -0,0 +1,178 @@
+package com.vietct.OrderFlow.inventory.service;
+
+import com.vietct.OrderFlow.catalog.domain.Product;
+import com.vietct.OrderFlow.inventory.domain.Inventory;
+import com.vietct.OrderFlow.inventory.exception.InsufficientStockException;
+import com.vietct.OrderFlow.inventory.repository.InventoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@Testcontainers(disabledWithoutDocker = true)
+class RedisStockReservationServiceIntegrationTest {
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private LettuceConnectionFactory connectionFactory;
+    private InventoryRepository inventoryRepository;
+    private RedisStockReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+
+        inventoryRepository = Mockito.mock(InventoryRepository.class);
+        service = new RedisStockReservationService(redisTemplate, inventoryRepository, Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    private void stock(UUID productId, int available) {
+        Product product = Mockito.mock(Product.class);
+        when(product.getId()).thenReturn(productId);
+
+        Inventory inventory = new Inventory();
+        inventory.setProduct(product);
+        inventory.setAvailableQuantity(available);
+        when(inventoryRepository.findByProductIdIn(any())).thenReturn(List.of(inventory));
+    }
+
+    @Test
+    void hold_concurrentCheckouts_neverOversell() throws Exception {
+        // Arrange
+        UUID productId = UUID.randomUUID();
+        stock(productId, 50);
+
+        int threads = 16;
+        int ordersPerThread = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int held = 0;
+                for (int i = 0; i < ordersPerThread; i++) {
+                    try {
+                        service.hold(UUID.randomUUID(), Map.of(productId, 1));
+                        held++;
+                    } catch (InsufficientStockException ignored) {
+                        // sold out
+                    }
+                }
+                return held;
+            }));
+        }
+        start.countDown();
+
+        int totalHeld = 0;
+        for (Future<Integer> result : results) {
+            totalHeld += result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertThat(totalHeld).isEqualTo(50);
+        assertThat(service.getAvailableQuantity(productId)).isZero();
+    }
+
+    @Test
+    void releaseAndConfirm_settleEachHoldOnce() {
+        // Arrange
+        UUID productId = UUID.randomUUID();
+        stock(productId, 5);
+        UUID released = UUID.randomUUID();
+        UUID confirmed = UUID.randomUUID();
+
+        service.hold(released, Map.of(productId, 2));
+        service.hold(confirmed, Map.of(productId, 3));
+
+        // Act
+        boolean firstRelease = service.release(released);
+        boolean secondRelease = service.release(released);
+        boolean firstConfirm = service.confirm(confirmed);
+        boolean releaseAfterConfirm = service.release(confirmed);
+
+        // Assert
+        assertThat(firstRelease).isTrue();
+        assertThat(secondRelease).isFalse();
+        assertThat(firstConfirm).isTrue();
+        assertThat(releaseAfterConfirm).isFalse();
+        assertThat(service.getAvailableQuantity(productId)).isEqualTo(2);
+        assertThat(service.claimSettlement()).containsExactly(Map.entry(productId, 3));
+
+        service.completeSettlement(List.of());
+        assertThat(service.claimSettlement()).isEmpty();
+        assertThat(service.getDeadLetteredSettlement()).isEmpty();
+    }
+
+    @Test
+    void completeSettlement_parksRejectedProductsInDeadLetter() {
+        // Arrange
+        UUID applied = UUID.randomUUID();
+        UUID rejected = UUID.randomUUID();
+        for (Map.Entry<UUID, Integer> line : Map.of(applied, 2, rejected, 4).entrySet()) {
+            stock(line.getKey(), 5);
+            UUID orderId = UUID.randomUUID();
+            service.hold(orderId, Map.of(line.getKey(), line.getValue()));
+            service.confirm(orderId);
+        }
+        service.claimSettlement();
+
+        // Act
+        service.completeSettlement(List.of(rejected));
+
+        // Assert
+        assertThat(service.claimSettlement()).isEmpty();
+        assertThat(service.getDeadLetteredSettlement()).containsExactly(Map.entry(rejected, 4));
+    }
+
+    @Test
+    void hold_notEnoughStock_reportsProductAndHoldsNothing() {
+        // Arrange
+        UUID productId = UUID.randomUUID();
+        stock(productId, 1);
+
+        // Act + Assert
+        assertThatThrownBy(() -> service.hold(UUID.randomUUID(), Map.of(productId, 2)))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining(productId.toString());
+
+        assertThat(service.getAvailableQuantity(productId)).isEqualTo(1);
+    }
+}
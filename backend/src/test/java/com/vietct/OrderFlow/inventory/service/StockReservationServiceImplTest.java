@@ -0,0 +1,227 @@
+package com.vietct.OrderFlow.inventory.service;
+
+import com.vietct.OrderFlow.catalog.domain.Product;
+import com.vietct.OrderFlow.inventory.domain.Inventory;
+import com.vietct.OrderFlow.inventory.exception.InsufficientStockException;
+import com.vietct.OrderFlow.inventory.exception.InventoryNotFoundException;
+import com.vietct.OrderFlow.inventory.repository.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceImplTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private HotStockLedger hotStockLedger;
+
+    @Mock
+    private RedisStockReservationService redisStockReservationService;
+
+    @Mock
+    private ObjectProvider<RedisStockReservationService> redisStockReservationServiceProvider;
+
+    private StockReservationServiceImpl service(StockReservationMode mode) {
+        return new StockReservationServiceImpl(inventoryRepository, hotStockLedger,
+                redisStockReservationServiceProvider, mode, 3, 0, 0);
+    }
+
+    private Inventory inventory(UUID productId, int available) {
+        Product product = Mockito.mock(Product.class);
+        Mockito.when(product.getId()).thenReturn(productId);
+
+        Inventory inventory = new Inventory();
+        inventory.setProduct(product);
+        inventory.setAvailableQuantity(available);
+        return inventory;
+    }
+
+    private Map<UUID, Integer> quantities(UUID id1, int qty1, UUID id2, int qty2) {
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(id1, qty1);
+        quantities.put(id2, qty2);
+        return quantities;
+    }
+
+    @Test
+    void reserve_atomic_appliesOneBulkStatement() {
+        // Arrange
+        UUID id1 = UUID.randomUUID();
+        UUID id2 = UUID.randomUUID();
+        Map<UUID, Integer> quantities = quantities(id1, 2, id2, 1);
+
+        List<Inventory> inventories = List.of(inventory(id1, 5), inventory(id2, 5));
+
+        when(inventoryRepository.findByProductIdIn(any())).thenReturn(inventories);
+        when(inventoryRepository.decrementAvailableQuantities(quantities)).thenReturn(List.of(id1, id2));
+
+        // Act
+        service(StockReservationMode.ATOMIC).reserve(UUID.randomUUID(), quantities);
+
+        // Assert
+        verify(inventoryRepository).decrementAvailableQuantities(quantities);
+        verify(inventoryRepository, never()).flush();
+    }
+
+    @Test
+    void reserve_atomic_productMissingFromBulkResult_reportsThatProduct() {
+        // Arrange
+        UUID id1 = UUID.randomUUID();
+        UUID id2 = UUID.randomUUID();
+
+        List<Inventory> inventories = List.of(inventory(id1, 1), inventory(id2, 1));
+
+        when(inventoryRepository.findByProductIdIn(any())).thenReturn(inventories);
+        // another checkout took the last unit of id2 after we read it
+        when(inventoryRepository.decrementAvailableQuantities(anyMap())).thenReturn(List.of(id1));
+
+        // Act + Assert
+        assertThatThrownBy(() -> service(StockReservationMode.ATOMIC).reserve(UUID.randomUUID(), quantities(id1, 1, id2, 1)))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining(id2.toString());
+    }
+
+    @Test
+    void reserve_optimistic_decrementsEntitiesAndFlushes() {
+        // Arrange
+        UUID id1 = UUID.randomUUID();
+        UUID id2 = UUID.randomUUID();
+        Inventory inv1 = inventory(id1, 5);
+        Inventory inv2 = inventory(id2, 3);
+
+        when(inventoryRepository.findByProductIdIn(any())).thenReturn(List.of(inv1, inv2));
+
+        // Act
+        service(StockReservationMode.OPTIMISTIC).reserve(UUID.randomUUID(), quantities(id1, 2, id2, 3));
+
+        // Assert
+        assertThat(inv1.getAvailableQuantity()).isEqualTo(3);
+        assertThat(inv2.getAvailableQuantity()).isZero();
+        verify(inventoryRepository).flush();
+        verify(inventoryRepository, never()).decrementAvailableQuantities(anyMap());
+    }
+
+    @Test
+    void reserve_notEnoughStock_throwsBeforeWriting() {
+        // Arrange
+        UUID id1 = UUID.randomUUID();
+        UUID id2 = UUID.randomUUID();
+
+        List<Inventory> inventories = List.of(inventory(id1, 5), inventory(id2, 1));
+
+        when(inventoryRepository.findByProductIdIn(any())).thenReturn(inventories);
+
+        // Act + Assert
+        assertThatThrownBy(() -> service(StockReservationMode.ATOMIC).reserve(UUID.randomUUID(), quantities(id1, 1, id2, 2)))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining(id2.toString());
+
+        verify(inventoryRepository, never()).decrementAvailableQuantities(anyMap());
+    }
+
+    @Test
+    void reserve_missingInventoryRow_throwsInventoryNotFoundException() {
+        // Arrange
+        UUID id1 = UUID.randomUUID();
+        UUID id2 = UUID.randomUUID();
+
+        List<Inventory> inventories = List.of(inventory(id1, 5));
+
+        when(inventoryRepository.findByProductIdIn(any())).thenReturn(inventories);
+
+        // Act + Assert
+        assertThatThrownBy(() -> service(StockReservationMode.ATOMIC).reserve(UUID.randomUUID(), quantities(id1, 1, id2, 1)))
+                .isInstanceOf(InventoryNotFoundException.class)
+                .hasMessageContaining(id2.toString());
+    }
+
+    @Test
+    void reserve_ledger_sendsOnlyNonHotLinesToBulkStatement() {
+        // Arrange
+        UUID hot = UUID.randomUUID();
+        UUID cold = UUID.randomUUID();
+        Map<UUID, Integer> quantities = quantities(hot, 2, cold, 1);
+        List<Inventory> inventories = List.of(inventory(cold, 5));
+
+        when(hotStockLedger.reserve(quantities)).thenReturn(Map.of(cold, 1));
+        when(inventoryRepository.findByProductIdIn(any())).thenReturn(inventories);
+        when(inventoryRepository.decrementAvailableQuantities(Map.of(cold, 1))).thenReturn(List.of(cold));
+
+        // Act
+        service(StockReservationMode.LEDGER).reserve(UUID.randomUUID(), quantities);
+
+        // Assert
+        verify(inventoryRepository).findByProductIdIn(Map.of(cold, 1).keySet());
+        verify(inventoryRepository).decrementAvailableQuantities(Map.of(cold, 1));
+    }
+
+    @Test
+    void reserve_ledger_allLinesHot_skipsDatabase() {
+        // Arrange
+        UUID hot = UUID.randomUUID();
+        Map<UUID, Integer> quantities = Map.of(hot, 2);
+
+        when(hotStockLedger.reserve(quantities)).thenReturn(Map.of());
+
+        // Act
+        service(StockReservationMode.LEDGER).reserve(UUID.randomUUID(), quantities);
+
+        // Assert
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void reserve_redis_delegatesWithOrderIdAndSkipsDatabase() {
+        // Arrange
+        UUID orderId = UUID.randomUUID();
+        Map<UUID, Integer> quantities = Map.of(UUID.randomUUID(), 2);
+
+        when(redisStockReservationServiceProvider.getIfAvailable()).thenReturn(redisStockReservationService);
+
+        // Act
+        service(StockReservationMode.REDIS).reserve(orderId, quantities);
+
+        // Assert
+        verify(redisStockReservationService).reserve(orderId, quantities);
+        verifyNoInteractions(inventoryRepository, hotStockLedger);
+    }
+
+    @Test
+    void reserve_redisWithoutProfile_throwsIllegalStateException() {
+        // Arrange
+        when(redisStockReservationServiceProvider.getIfAvailable()).thenReturn(null);
+
+        // Act + Assert
+        assertThatThrownBy(() -> service(StockReservationMode.REDIS).reserve(UUID.randomUUID(), Map.of(UUID.randomUUID(), 1)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("redis-stock");
+    }
+
+    @Test
+    void awaitRetry_onlyRetryModeRetriesAndStopsAtMaxAttempts() {
+        assertThat(service(StockReservationMode.OPTIMISTIC).awaitRetry(1)).isFalse();
+        assertThat(service(StockReservationMode.ATOMIC).awaitRetry(1)).isFalse();
+
+        StockReservationServiceImpl retrying = service(StockReservationMode.OPTIMISTIC_RETRY);
+        assertThat(retrying.awaitRetry(1)).isTrue();
+        assertThat(retrying.awaitRetry(2)).isTrue();
+        assertThat(retrying.awaitRetry(3)).isFalse();
+    }
+}
@@ -0,0 +1,73 @@
+package com.vietct.OrderFlow.inventory.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedStockCounterTest {
+
+    @Test
+    void tryAcquire_gathersAcrossStripesWhenNoSingleStripeIsEnough() {
+        StripedStockCounter counter = new StripedStockCounter(4);
+        counter.add(4); // one unit per stripe
+
+        assertThat(counter.tryAcquire(3)).isTrue();
+        assertThat(counter.total()).isEqualTo(1);
+    }
+
+    @Test
+    void tryAcquire_notEnoughInTotal_leavesCountUntouched() {
+        StripedStockCounter counter = new StripedStockCounter(4);
+        counter.add(3);
+
+        assertThat(counter.tryAcquire(4)).isFalse();
+        assertThat(counter.total()).isEqualTo(3);
+    }
+
+    @Test
+    void takeUpTo_neverTakesMoreThanHeld() {
+        StripedStockCounter counter = new StripedStockCounter(3);
+        counter.add(10);
+
+        assertThat(counter.takeUpTo(4)).isEqualTo(4);
+        assertThat(counter.takeUpTo(Long.MAX_VALUE)).isEqualTo(6);
+        assertThat(counter.total()).isZero();
+    }
+
+    @Test
+    void tryAcquire_concurrentBuyersNeverOversell() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(8);
+        counter.add(1_000);
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 200; i++) {
+                    int quantity = 1 + (i % 3);
+                    if (counter.tryAcquire(quantity)) {
+                        sold.addAndGet(quantity);
+                    }
+                }
+                return null;
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(sold.get() + counter.total()).isEqualTo(1_000);
+        assertThat(counter.total()).isBetween(0L, 2L);
+    }
+}
@@ -0,0 +1,230 @@
+package com.vietct.OrderFlow.order.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vietct.OrderFlow.catalog.exception.ProductNotFoundException;
+import com.vietct.OrderFlow.catalog.repository.ProductRepository;
+import com.vietct.OrderFlow.common.concurrent.WorkerThreads;
+import com.vietct.OrderFlow.inventory.exception.InsufficientStockException;
+import com.vietct.OrderFlow.order.domain.OrderIntake;
+import com.vietct.OrderFlow.order.domain.OrderIntakeStatus;
+import com.vietct.OrderFlow.order.dto.OrderCreateRequest;
+import com.vietct.OrderFlow.order.dto.OrderItemRequest;
+import com.vietct.OrderFlow.order.exception.OrderIntakeFullException;
+import com.vietct.OrderFlow.order.repository.OrderIntakeRepository;
+import com.vietct.OrderFlow.order.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIntakeServiceTest {
+
+    @Mock
+    private OrderIntakeRepository intakeRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OrderIntakeService intakeService;
+
+    @BeforeEach
+    void setUp() {
+        intakeService = new OrderIntakeService(intakeRepository, orderRepository, orderService, productRepository,
+                objectMapper, transactionManager, meterRegistry, WorkerThreads.platform(),
+                2, 1, 20, 3, Duration.ofSeconds(2), Duration.ofMinutes(5), Duration.ofDays(7));
+    }
+
+    @AfterEach
+    void tearDown() {
+        intakeService.shutdown();
+    }
+
+    private OrderCreateRequest request(UUID productId) {
+        return new OrderCreateRequest(UUID.randomUUID(), List.of(new OrderItemRequest(productId, 1)), "MOCK_CARD");
+    }
+
+    private OrderIntake claimed(UUID id, OrderCreateRequest request, int attempts) throws Exception {
+        OrderIntake intake = Mockito.mock(OrderIntake.class);
+        Mockito.lenient().when(intake.getId()).thenReturn(id);
+        Mockito.lenient().when(intake.getPayload()).thenReturn(objectMapper.writeValueAsString(request));
+        Mockito.lenient().when(intake.getAttempts()).thenReturn(attempts);
+        return intake;
+    }
+
+    private double intakeCount(String outcome) {
+        return meterRegistry.counter("orderflow.order.intake", "outcome", outcome).count();
+    }
+
+    @Test
+    void submit_unknownProduct_throwsWithoutQueueing() {
+        // Arrange
+        UUID productId = UUID.randomUUID();
+        when(productRepository.findExistingIds(any())).thenReturn(List.of());
+
+        // Act + Assert
+        assertThatThrownBy(() -> intakeService.submit(request(productId)))
+                .isInstanceOf(ProductNotFoundException.class);
+
+        verify(intakeRepository, never()).save(any());
+    }
+
+    @Test
+    void submit_intakeFull_rejectsWithoutQueueing() {
+        // Arrange
+        UUID productId = UUID.randomUUID();
+        when(productRepository.findExistingIds(any())).thenReturn(List.of(productId));
+        when(intakeRepository.countBacklog()).thenReturn(2L);
+
+        // Act + Assert
+        assertThatThrownBy(() -> intakeService.submit(request(productId)))
+                .isInstanceOf(OrderIntakeFullException.class);
+
+        verify(intakeRepository, never()).save(any());
+        assertThat(intakeCount("rejected")).isEqualTo(1);
+    }
+
+    @Test
+    void submit_storesQueuedRequest() throws Exception {
+        // Arrange
+        UUID productId = UUID.randomUUID();
+        OrderCreateRequest request = request(productId);
+        when(productRepository.findExistingIds(any())).thenReturn(List.of(productId));
+        when(intakeRepository.countBacklog()).thenReturn(0L);
+        when(intakeRepository.save(any(OrderIntake.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        OrderIntake intake = intakeService.submit(request);
+
+        // Assert
+        assertThat(intake.getStatus()).isEqualTo(OrderIntakeStatus.QUEUED);
+        assertThat(intake.getNextAttemptAt()).isNotNull();
+        assertThat(objectMapper.readValue(intake.getPayload(), OrderCreateRequest.class)).isEqualTo(request);
+        assertThat(intakeCount("accepted")).isEqualTo(1);
+    }
+
+    @Test
+    void process_placesOrderUnderIntakeIdAndDeletesRow() throws Exception {
+        // Arrange
+        UUID orderId = UUID.randomUUID();
+        OrderCreateRequest request = request(UUID.randomUUID());
+        when(orderRepository.existsById(orderId)).thenReturn(false);
+
+        // Act
+        intakeService.process(claimed(orderId, request, 1));
+
+        // Assert
+        verify(orderService).placeOrder(orderId, request);
+        verify(intakeRepository).deleteCompleted(orderId);
+        assertThat(intakeCount("placed")).isEqualTo(1);
+    }
+
+    @Test
+    void process_orderAlreadyPlaced_onlyDeletesRow() throws Exception {
+        // Arrange
+        UUID orderId = UUID.randomUUID();
+        when(orderRepository.existsById(orderId)).thenReturn(true);
+
+        // Act
+        intakeService.process(claimed(orderId, request(UUID.randomUUID()), 2));
+
+        // Assert
+        verify(orderService, never()).placeOrder(any(), any());
+        verify(intakeRepository).deleteCompleted(orderId);
+    }
+
+    @Test
+    void process_insufficientStock_marksFailedWithoutRetry() throws Exception {
+        // Arrange
+        UUID orderId = UUID.randomUUID();
+        UUID productId = UUID.randomUUID();
+        when(orderRepository.existsById(orderId)).thenReturn(false);
+        when(orderService.placeOrder(eq(orderId), any())).thenThrow(new InsufficientStockException(productId));
+
+        // Act
+        intakeService.process(claimed(orderId, request(productId), 1));
+
+        // Assert
+        verify(intakeRepository).markFailed(eq(orderId), eq("Insufficient stock for product: " + productId), any());
+        verify(intakeRepository, never()).requeue(any(), any(), any(), any());
+        verify(intakeRepository, never()).deleteCompleted(any());
+    }
+
+    @Test
+    void process_transientFailure_requeuesWithBackoff() throws Exception {
+        // Arrange
+        UUID orderId = UUID.randomUUID();
+        when(orderRepository.existsById(orderId)).thenReturn(false);
+        when(orderService.placeOrder(eq(orderId), any())).thenThrow(new QueryTimeoutException("timeout"));
+        Instant before = Instant.now();
+
+        // Act
+        intakeService.process(claimed(orderId, request(UUID.randomUUID()), 2));
+
+        // Assert
+        verify(intakeRepository).requeue(eq(orderId),
+                argThat(next -> !next.isBefore(before.plusSeconds(4))), eq("timeout"), any());
+        verify(intakeRepository, never()).markFailed(any(), any(), any());
+        assertThat(intakeCount("retried")).isEqualTo(1);
+    }
+
+    @Test
+    void process_transientFailureOnLastAttempt_marksFailed() throws Exception {
+        // Arrange
+        UUID orderId = UUID.randomUUID();
+        when(orderRepository.existsById(orderId)).thenReturn(false);
+        when(orderService.placeOrder(eq(orderId), any())).thenThrow(new QueryTimeoutException("timeout"));
+
+        // Act
+        intakeService.process(claimed(orderId, request(UUID.randomUUID()), 3));
+
+        // Assert
+        verify(intakeRepository).markFailed(eq(orderId), anyString(), any());
+        verify(intakeRepository, never()).requeue(any(), any(), any(), any());
+        assertThat(intakeCount("failed")).isEqualTo(1);
+    }
+
+    @Test
+    void purgeFailed_deletesFailedRowsOlderThanRetention() {
+        // Arrange
+        Instant before = Instant.now();
+
+        // Act
+        intakeService.purgeFailed();
+
+        // Assert
+        verify(intakeRepository).deleteFailedBefore(argThat(cutoff ->
+                !cutoff.isBefore(before.minus(Duration.ofDays(7))) && cutoff.isBefore(before.minus(Duration.ofDays(6)))));
+    }
+}
@@ -0,0 +1,270 @@
+package com.vietct.OrderFlow.order.service;
+
+import com.vietct.OrderFlow.catalog.domain.Product;
+import com.vietct.OrderFlow.catalog.exception.ProductNotFoundException;
+import com.vietct.OrderFlow.catalog.repository.ProductRepository;
+import com.vietct.OrderFlow.common.pagination.Cursor;
+import com.vietct.OrderFlow.common.pagination.CursorPage;
+import com.vietct.OrderFlow.common.pagination.InvalidCursorException;
+import com.vietct.OrderFlow.inventory.domain.Inventory;
+import com.vietct.OrderFlow.inventory.exception.InsufficientStockException;
+import com.vietct.OrderFlow.inventory.service.StockReservationService;
+import com.vietct.OrderFlow.order.domain.Order;
+import com.vietct.OrderFlow.order.domain.OrderStatus;
+import com.vietct.OrderFlow.order.dto.OrderCreateRequest;
+import com.vietct.OrderFlow.order.dto.OrderExportRow;
+import com.vietct.OrderFlow.order.dto.OrderItemRequest;
+import com.vietct.OrderFlow.order.dto.OrderResponseDTO;
+import com.vietct.OrderFlow.order.repository.OrderRepository;
+import com.vietct.OrderFlow.payment.service.PaymentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private OrderServiceImpl orderService;
+
+    private Product product(UUID id, String price) {
+        Product product = Mockito.mock(Product.class);
+        Mockito.lenient().when(product.getId()).thenReturn(id);
+        Mockito.lenient().when(product.getPrice()).thenReturn(new BigDecimal(price));
+        return product;
+    }
+
+    private OrderCreateRequest request(OrderItemRequest... items) {
+        return new OrderCreateRequest(UUID.randomUUID(), List.of(items), "MOCK_CARD");
+    }
+
+    @Test
+    void placeOrder_reservesSummedQuantitiesForWholeCart() {
+        // Arrange
+        UUID id1 = UUID.randomUUID();
+        UUID id2 = UUID.randomUUID();
+        Product p1 = product(id1, "10.00");
+        Product p2 = product(id2, "5.50");
+
+        when(productRepository.findAllById(any())).thenReturn(List.of(p1, p2));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Order order = orderService.placeOrder(request(
+                new OrderItemRequest(id1, 2),
+                new OrderItemRequest(id2, 1),
+                new OrderItemRequest(id1, 1)
+        ));
+
+        // Assert
+        assertThat(order.getItems()).hasSize(3);
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("35.50");
+
+        verify(stockReservationService).reserve(any(), eq(Map.of(id1, 3, id2, 1)));
+        verify(paymentService).processPayment(eq(order), eq(order.getTotalAmount()), anyString());
+        verify(transactionManager).commit(any());
+        assertThat(meterRegistry.get("orderflow.order.place").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void placeOrder_unknownProduct_throwsBeforeReservingStock() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        when(productRepository.findAllById(any())).thenReturn(List.of());
+
+        // Act + Assert
+        assertThatThrownBy(() -> orderService.placeOrder(request(new OrderItemRequest(id, 1))))
+                .isInstanceOf(ProductNotFoundException.class)
+                .hasMessageContaining(id.toString());
+
+        verifyNoInteractions(stockReservationService, orderRepository, paymentService);
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void placeOrder_versionConflict_retriesInFreshTransactionWhileAllowed() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        Product p = product(id, "10.00");
+
+        when(productRepository.findAllById(any())).thenReturn(List.of(p));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new ObjectOptimisticLockingFailureException(Inventory.class, id))
+                .doNothing()
+                .when(stockReservationService).reserve(any(), anyMap());
+        when(stockReservationService.awaitRetry(1)).thenReturn(true);
+
+        // Act
+        Order order = orderService.placeOrder(request(new OrderItemRequest(id, 1)));
+
+        // Assert
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("10.00");
+        verify(stockReservationService, times(2)).reserve(any(), anyMap());
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void placeOrder_versionConflictWithoutRetry_throwsInsufficientStockException() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        Product p = product(id, "10.00");
+
+        when(productRepository.findAllById(any())).thenReturn(List.of(p));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new ObjectOptimisticLockingFailureException(Inventory.class, id))
+                .when(stockReservationService).reserve(any(), anyMap());
+        when(stockReservationService.awaitRetry(anyInt())).thenReturn(false);
+
+        // Act + Assert
+        assertThatThrownBy(() -> orderService.placeOrder(request(new OrderItemRequest(id, 1))))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("concurrent stock updates");
+
+        verify(stockReservationService).reserve(any(), anyMap());
+        verifyNoInteractions(paymentService);
+        assertThat(meterRegistry.get("orderflow.order.place").tag("outcome", "optimistic_conflict").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("orderflow.order.stock.conflicts").counter().count()).isEqualTo(1);
+    }
+
+    private Order storedOrder(UUID id, Instant createdAt) {
+        Order order = Mockito.mock(Order.class);
+        Mockito.lenient().when(order.getId()).thenReturn(id);
+        Mockito.lenient().when(order.getCreatedAt()).thenReturn(createdAt);
+        return order;
+    }
+
+    @Test
+    void getOrderHistory_firstSlice_fetchesOneExtraIdAndKeepsIdOrder() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        UUID id1 = UUID.randomUUID();
+        UUID id2 = UUID.randomUUID();
+        UUID id3 = UUID.randomUUID();
+        Order o1 = storedOrder(id1, Instant.parse("2025-01-03T00:00:00Z"));
+        Order o2 = storedOrder(id2, Instant.parse("2025-01-02T00:00:00Z"));
+        Order o3 = storedOrder(id3, Instant.parse("2025-01-01T00:00:00Z"));
+
+        when(orderRepository.findLatestIdsByUserId(userId, Limit.of(3))).thenReturn(List.of(id1, id2, id3));
+        when(orderRepository.findWithItemsByIdIn(List.of(id1, id2, id3)))
+                .thenReturn(List.of(o2, o3, o1));
+
+        // Act
+        CursorPage<Order> page = orderService.getOrderHistory(userId, null, 2);
+
+        // Assert
+        assertThat(page.content()).containsExactly(o1, o2);
+        assertThat(page.hasNext()).isTrue();
+        Cursor next = Cursor.decode(page.nextCursor());
+        assertThat(next.value()).isEqualTo("2025-01-02T00:00:00Z");
+        assertThat(next.id()).isEqualTo(id2);
+    }
+
+    @Test
+    void getOrderHistory_withCursor_seeksPastCursorRow() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        UUID lastId = UUID.randomUUID();
+        Instant lastCreatedAt = Instant.parse("2025-01-02T00:00:00Z");
+        String cursor = new Cursor("createdAt", Sort.Direction.DESC, lastCreatedAt.toString(), lastId).encode();
+
+        when(orderRepository.findIdsByUserIdBefore(userId, lastCreatedAt, lastId, Limit.of(3))).thenReturn(List.of());
+
+        // Act
+        CursorPage<Order> page = orderService.getOrderHistory(userId, cursor, 2);
+
+        // Assert
+        assertThat(page.content()).isEmpty();
+        assertThat(page.hasNext()).isFalse();
+        assertThat(page.nextCursor()).isNull();
+        verify(orderRepository, never()).findWithItemsByIdIn(any());
+    }
+
+    @Test
+    void getOrderHistory_cursorForOtherSort_isRejected() {
+        // Arrange
+        String cursor = new Cursor("price", Sort.Direction.ASC, "10.00", UUID.randomUUID()).encode();
+
+        // Act + Assert
+        assertThatThrownBy(() -> orderService.getOrderHistory(UUID.randomUUID(), cursor, 2))
+                .isInstanceOf(InvalidCursorException.class);
+        verifyNoInteractions(orderRepository);
+    }
+
+    private OrderExportRow exportRow(UUID orderId, UUID productId) {
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        return new OrderExportRow(orderId, null, OrderStatus.PAID, new BigDecimal("10.00"), now, now,
+                productId, productId == null ? null : "Mug", productId == null ? null : 1,
+                productId == null ? null : new BigDecimal("5.00"));
+    }
+
+    @Test
+    void exportOrders_groupsAdjacentLinesIntoOneOrderEach() {
+        // Arrange
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID p1 = UUID.randomUUID();
+        UUID p2 = UUID.randomUUID();
+
+        when(orderRepository.streamExportRows()).thenReturn(Stream.of(
+                exportRow(first, p1),
+                exportRow(first, p2),
+                exportRow(second, null)));
+
+        // Act
+        List<OrderResponseDTO> exported = new ArrayList<>();
+        orderService.exportOrders(exported::add);
+
+        // Assert
+        assertThat(exported).extracting(OrderResponseDTO::id).containsExactly(first, second);
+        assertThat(exported.get(0).items()).extracting(item -> item.productId()).containsExactly(p1, p2);
+        assertThat(exported.get(1).items()).isEmpty();
+    }
+}
@@ -0,0 +1,109 @@
+package com.vietct.OrderFlow.outbox.service;
+
+import com.vietct.OrderFlow.common.lock.DistributedLockManager;
+import com.vietct.OrderFlow.outbox.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxMaintenanceServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-10T12:00:00Z");
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private DistributedLockManager lockManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxMaintenanceService service(boolean archiveEnabled) {
+        return new OutboxMaintenanceService(outboxEventRepository, lockManager, transactionManager,
+                2, Duration.ofDays(1), archiveEnabled, Duration.ofDays(30));
+    }
+
+    @Test
+    void run_createsPartitionsAheadOfToday() {
+        // Arrange
+        when(outboxEventRepository.findPartitionDays()).thenReturn(List.of());
+
+        // Act
+        service(true).doRunMaintenance(NOW);
+
+        // Assert
+        verify(outboxEventRepository).createPartition(LocalDate.of(2026, 3, 10));
+        verify(outboxEventRepository).createPartition(LocalDate.of(2026, 3, 11));
+        verify(outboxEventRepository).createPartition(LocalDate.of(2026, 3, 12));
+        verify(outboxEventRepository).deleteArchivedBefore(Instant.parse("2026-02-08T12:00:00Z"));
+    }
+
+    @Test
+    void run_archivesAndDropsOnlyProcessedPartitionsPastRetention() {
+        // Arrange
+        LocalDate processed = LocalDate.of(2026, 3, 7);
+        LocalDate stuck = LocalDate.of(2026, 3, 8);
+        LocalDate yesterday = LocalDate.of(2026, 3, 9);
+
+        when(outboxEventRepository.findPartitionDays()).thenReturn(List.of(processed, stuck, yesterday));
+        when(outboxEventRepository.hasUnprocessedEvents(processed)).thenReturn(false);
+        when(outboxEventRepository.hasUnprocessedEvents(stuck)).thenReturn(true);
+
+        // Act
+        service(true).doRunMaintenance(NOW);
+
+        // Assert
+        verify(outboxEventRepository).archivePartition(processed);
+        verify(outboxEventRepository).dropPartition(processed);
+        verify(outboxEventRepository, never()).dropPartition(stuck);
+        // yesterday ended 12h ago, still inside the one-day hot retention
+        verify(outboxEventRepository, never()).hasUnprocessedEvents(yesterday);
+        verify(outboxEventRepository, never()).dropPartition(yesterday);
+    }
+
+    @Test
+    void run_movesDefaultPartitionRowsIntoTheirDayBeforeRetiring() {
+        // Arrange
+        LocalDate outage = LocalDate.of(2026, 2, 20);
+        when(outboxEventRepository.findDefaultPartitionDays()).thenReturn(List.of(outage));
+        when(outboxEventRepository.findPartitionDays()).thenReturn(List.of(outage));
+        when(outboxEventRepository.hasUnprocessedEvents(outage)).thenReturn(false);
+
+        // Act
+        service(true).doRunMaintenance(NOW);
+
+        // Assert
+        var inOrder = inOrder(outboxEventRepository);
+        inOrder.verify(outboxEventRepository).createPartition(outage);
+        inOrder.verify(outboxEventRepository).archivePartition(outage);
+        inOrder.verify(outboxEventRepository).dropPartition(outage);
+    }
+
+    @Test
+    void run_archiveDisabled_dropsWithoutCopying() {
+        // Arrange
+        LocalDate processed = LocalDate.of(2026, 3, 1);
+        when(outboxEventRepository.findPartitionDays()).thenReturn(List.of(processed));
+        when(outboxEventRepository.hasUnprocessedEvents(processed)).thenReturn(false);
+
+        // Act
+        service(false).doRunMaintenance(NOW);
+
+        // Assert
+        verify(outboxEventRepository).dropPartition(processed);
+        verify(outboxEventRepository, never()).archivePartition(any());
+        verify(outboxEventRepository, never()).deleteArchivedBefore(any());
+    }
+}
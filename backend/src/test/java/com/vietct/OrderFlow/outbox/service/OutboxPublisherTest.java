@@ -0,0 +1,339 @@
+package com.vietct.OrderFlow.outbox.service;
+
+import com.vietct.OrderFlow.common.concurrent.WorkerThreads;
+import com.vietct.OrderFlow.common.lock.DistributedLockManager;
+import com.vietct.OrderFlow.common.lock.LockLease;
+import com.vietct.OrderFlow.outbox.domain.OutboxEvent;
+import com.vietct.OrderFlow.outbox.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxPublisherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private DistributedLockManager lockManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private LockLease lease;
+
+    private OutboxPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = publisher(OutboxPublishMode.LEADER, 1);
+    }
+
+    private OutboxPublisher publisher(OutboxPublishMode mode, int partitions) {
+        return new OutboxPublisher(outboxEventRepository, kafkaTemplate, lockManager, transactionManager,
+                new SimpleMeterRegistry(), 2, 8, 50, 400, 1000, mode, 1, partitions, WorkerThreads.platform());
+    }
+
+    private OutboxEvent event() {
+        OutboxEvent event = new OutboxEvent();
+        ReflectionTestUtils.setField(event, "id", UUID.randomUUID());
+        event.setAggregateType("PAYMENT");
+        event.setAggregateId(UUID.randomUUID());
+        event.setEventType("PAYMENT_COMPLETED");
+        event.setPayload("{}");
+        return event;
+    }
+
+    private List<OutboxEvent> events(int count) {
+        List<OutboxEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            events.add(event());
+        }
+        return events;
+    }
+
+    private static CompletableFuture<SendResult<String, String>> acked() {
+        return CompletableFuture.completedFuture(new SendResult<>(null, null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishBatch_marksAllAcknowledgedEventsWithOneUpdate() {
+        // Arrange
+        List<OutboxEvent> events = events(3);
+        when(kafkaTemplate.send(eq("payment.events"), anyString(), anyString())).thenReturn(acked());
+
+        // Act
+        int published = publisher.publishBatch(events);
+
+        // Assert
+        ArgumentCaptor<Collection<UUID>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(outboxEventRepository).markProcessed(ids.capture(), any());
+        assertThat(published).isEqualTo(3);
+        assertThat(ids.getValue()).containsExactly(events.get(0).getId(), events.get(1).getId(), events.get(2).getId());
+        verify(kafkaTemplate, times(3)).send(anyString(), anyString(), anyString());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishBatch_failedSend_leavesThatEventUnprocessed() {
+        // Arrange
+        List<OutboxEvent> events = events(2);
+        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                .thenReturn(acked())
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        // Act
+        int published = publisher.publishBatch(events);
+
+        // Assert
+        ArgumentCaptor<Collection<UUID>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(outboxEventRepository).markProcessed(ids.capture(), any());
+        assertThat(published).isEqualTo(1);
+        assertThat(ids.getValue()).containsExactly(events.get(0).getId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishBatch_failedSend_holdsBackLaterEventsOfThatAggregateOnly() {
+        // Arrange
+        List<OutboxEvent> events = events(4);
+        UUID aggregateId = events.get(0).getAggregateId();
+        events.get(2).setAggregateId(aggregateId);
+        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .thenReturn(acked());
+
+        // Act
+        int published = publisher.publishBatch(events);
+
+        // Assert: the acknowledged third event waits to be sent again after the first
+        ArgumentCaptor<Collection<UUID>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(outboxEventRepository).markProcessed(ids.capture(), any());
+        assertThat(published).isEqualTo(2);
+        assertThat(ids.getValue()).containsExactly(events.get(1).getId(), events.get(3).getId());
+    }
+
+    @Test
+    void publishBatch_nothingAcknowledged_skipsUpdate() {
+        // Arrange
+        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                .thenThrow(new IllegalStateException("metadata unavailable"));
+
+        // Act
+        int published = publisher.publishBatch(events(2));
+
+        // Assert
+        assertThat(published).isZero();
+        verify(outboxEventRepository, never()).markProcessed(any(), any());
+    }
+
+    @Test
+    void doPublish_fullBatches_growBatchSizeAndKeepDraining() {
+        // Arrange
+        when(outboxEventRepository.findByProcessedAtIsNullOrderByCreatedAtAsc(Limit.of(2))).thenReturn(events(2));
+        when(outboxEventRepository.findByProcessedAtIsNullOrderByCreatedAtAsc(Limit.of(4))).thenReturn(events(4));
+        when(outboxEventRepository.findByProcessedAtIsNullOrderByCreatedAtAsc(Limit.of(8))).thenReturn(events(1));
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenAnswer(invocation -> acked());
+
+        // Act
+        publisher.doPublishUnprocessedEvents();
+
+        // Assert
+        verify(outboxEventRepository, times(3)).findByProcessedAtIsNullOrderByCreatedAtAsc(any(Limit.class));
+        verify(kafkaTemplate, times(7)).send(anyString(), anyString(), anyString());
+        assertThat(publisher.getBatchSize()).isEqualTo(4);
+        assertThat(publisher.getPollIntervalMs()).isEqualTo(50);
+    }
+
+    @Test
+    void doPublish_idleTable_backsOffPollInterval() {
+        // Arrange
+        when(outboxEventRepository.findByProcessedAtIsNullOrderByCreatedAtAsc(any(Limit.class))).thenReturn(List.of());
+
+        // Act
+        publisher.doPublishUnprocessedEvents();
+        publisher.doPublishUnprocessedEvents();
+        publisher.doPublishUnprocessedEvents();
+        publisher.doPublishUnprocessedEvents();
+
+        // Assert
+        assertThat(publisher.getPollIntervalMs()).isEqualTo(400);
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void doPublish_skipLocked_claimsRowsWithoutRedisLock() {
+        // Arrange
+        OutboxPublisher skipLocked = publisher(OutboxPublishMode.SKIP_LOCKED, 1);
+        when(outboxEventRepository.claimUnprocessed(2)).thenReturn(events(1));
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(acked());
+
+        // Act
+        skipLocked.doPublishUnprocessedEvents();
+        skipLocked.shutdown();
+
+        // Assert
+        verify(outboxEventRepository).claimUnprocessed(2);
+        verify(outboxEventRepository).markProcessed(any(), any());
+        verify(outboxEventRepository, never()).findByProcessedAtIsNullOrderByCreatedAtAsc(any(Limit.class));
+        verifyNoInteractions(lockManager);
+    }
+
+    @Test
+    void doPublish_skipLockedPartitions_movesPastEmptyPartitionsToOneWithRows() {
+        // Arrange
+        OutboxPublisher partitioned = publisher(OutboxPublishMode.SKIP_LOCKED, 3);
+        when(outboxEventRepository.tryLockPartition(anyInt(), eq(0))).thenReturn(false);
+        when(outboxEventRepository.tryLockPartition(anyInt(), eq(1))).thenReturn(true);
+        when(outboxEventRepository.tryLockPartition(anyInt(), eq(2))).thenReturn(true);
+        when(outboxEventRepository.claimUnprocessedInPartition(1, 3, 2)).thenReturn(List.of());
+        when(outboxEventRepository.claimUnprocessedInPartition(2, 3, 2)).thenReturn(events(1));
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(acked());
+
+        // Act
+        partitioned.doPublishUnprocessedEvents();
+        partitioned.shutdown();
+
+        // Assert
+        verify(outboxEventRepository).claimUnprocessedInPartition(1, 3, 2);
+        verify(outboxEventRepository).claimUnprocessedInPartition(2, 3, 2);
+        verify(kafkaTemplate).send(anyString(), anyString(), anyString());
+        verify(outboxEventRepository).markProcessed(any(), any());
+    }
+
+    @Test
+    void doPublish_skipLockedPartitions_emptySweepWithBusyPartition_keepsShortPollInterval() {
+        // Arrange
+        OutboxPublisher partitioned = publisher(OutboxPublishMode.SKIP_LOCKED, 3);
+        when(outboxEventRepository.tryLockPartition(anyInt(), anyInt()))
+                .thenAnswer(invocation -> (int) invocation.getArgument(1) != 0);
+        when(outboxEventRepository.claimUnprocessedInPartition(anyInt(), eq(3), eq(2))).thenReturn(List.of());
+
+        // Act
+        partitioned.doPublishUnprocessedEvents();
+        partitioned.doPublishUnprocessedEvents();
+        partitioned.shutdown();
+
+        // Assert
+        verify(outboxEventRepository, never()).claimUnprocessedInPartition(eq(0), anyInt(), anyInt());
+        verify(outboxEventRepository, times(2)).claimUnprocessedInPartition(eq(1), eq(3), eq(2));
+        verify(outboxEventRepository, times(2)).claimUnprocessedInPartition(eq(2), eq(3), eq(2));
+        assertThat(partitioned.getPollIntervalMs()).isEqualTo(50);
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void doPublish_skipLockedPartitions_emptySweepOfIdleTable_backsOffPollInterval() {
+        // Arrange
+        OutboxPublisher partitioned = publisher(OutboxPublishMode.SKIP_LOCKED, 3);
+        when(outboxEventRepository.tryLockPartition(anyInt(), anyInt())).thenReturn(true);
+        when(outboxEventRepository.claimUnprocessedInPartition(anyInt(), eq(3), eq(2))).thenReturn(List.of());
+
+        // Act
+        partitioned.doPublishUnprocessedEvents();
+        partitioned.shutdown();
+
+        // Assert
+        verify(outboxEventRepository, times(3)).claimUnprocessedInPartition(anyInt(), eq(3), eq(2));
+        assertThat(partitioned.getPollIntervalMs()).isEqualTo(100);
+    }
+
+    @Test
+    void wakeUp_drainsEvenWhileIdleBackoffIsActive() {
+        // Arrange
+        when(lockManager.tryAcquire(anyString(), any())).thenReturn(Optional.of(lease));
+        when(lease.isHeld()).thenReturn(true);
+        when(outboxEventRepository.findByProcessedAtIsNullOrderByCreatedAtAsc(any(Limit.class))).thenReturn(List.of());
+        publisher.publishUnprocessedEvents();
+
+        // Act
+        publisher.publishUnprocessedEvents();
+        publisher.wakeUp();
+
+        // Assert
+        verify(outboxEventRepository, times(2)).findByProcessedAtIsNullOrderByCreatedAtAsc(any(Limit.class));
+        verify(lease, times(2)).close();
+    }
+
+    @Test
+    void publishUnprocessedEvents_leaseLost_stopsBeforeNextBatch() {
+        // Arrange
+        when(lockManager.tryAcquire(anyString(), any())).thenReturn(Optional.of(lease));
+        // held before the batch, before its sends and before its marks; lost before the next batch
+        when(lease.isHeld()).thenReturn(true, true, true, false);
+        when(outboxEventRepository.findByProcessedAtIsNullOrderByCreatedAtAsc(any(Limit.class))).thenReturn(events(2));
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(acked());
+
+        // Act
+        publisher.publishUnprocessedEvents();
+
+        // Assert
+        verify(outboxEventRepository, times(1)).findByProcessedAtIsNullOrderByCreatedAtAsc(any(Limit.class));
+        verify(outboxEventRepository).markProcessed(any(), any());
+        verify(lease).close();
+    }
+
+    @Test
+    void publishUnprocessedEvents_leaseLostAfterFetch_sendsNothing() {
+        // Arrange
+        when(lockManager.tryAcquire(anyString(), any())).thenReturn(Optional.of(lease));
+        when(lease.isHeld()).thenReturn(true, false);
+        when(outboxEventRepository.findByProcessedAtIsNullOrderByCreatedAtAsc(any(Limit.class))).thenReturn(events(2));
+
+        // Act
+        publisher.publishUnprocessedEvents();
+
+        // Assert
+        verifyNoInteractions(kafkaTemplate);
+        verify(outboxEventRepository, never()).markProcessed(any(), any());
+        verify(lease).close();
+    }
+
+    @Test
+    void publishUnprocessedEvents_leaseLostWhileSending_leavesEventsUnprocessed() {
+        // Arrange
+        when(lockManager.tryAcquire(anyString(), any())).thenReturn(Optional.of(lease));
+        when(lease.isHeld()).thenReturn(true, true, false);
+        when(outboxEventRepository.findByProcessedAtIsNullOrderByCreatedAtAsc(any(Limit.class))).thenReturn(events(2));
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(acked());
+
+        // Act
+        publisher.publishUnprocessedEvents();
+
+        // Assert
+        verify(kafkaTemplate, times(2)).send(anyString(), anyString(), anyString());
+        verify(outboxEventRepository, never()).markProcessed(any(), any());
+        verify(outboxEventRepository, times(1)).findByProcessedAtIsNullOrderByCreatedAtAsc(any(Limit.class));
+        verify(lease).close();
+    }
+}
@@ -0,0 +1,42 @@
+package com.vietct.OrderFlow.payment.service;
+
+import com.vietct.OrderFlow.common.concurrent.WorkerThreads;
+import com.vietct.OrderFlow.payment.event.PaymentCompletedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentCompletionListenerTest {
+
+    @Mock
+    private PaymentEventProcessor paymentEventProcessor;
+
+    @Test
+    void onPaymentCompleted_completesOnWorkerAndSurvivesFailures() {
+        // Arrange
+        PaymentCompletionListener listener =
+                new PaymentCompletionListener(paymentEventProcessor, WorkerThreads.platform(), 1, 10);
+        PaymentCompletedEvent failing = new PaymentCompletedEvent(UUID.randomUUID(), UUID.randomUUID(),
+                BigDecimal.TEN, "MOCK_CARD", Instant.now());
+        PaymentCompletedEvent next = new PaymentCompletedEvent(UUID.randomUUID(), UUID.randomUUID(),
+                BigDecimal.ONE, "MOCK_CARD", Instant.now());
+        doThrow(new IllegalStateException("db down")).when(paymentEventProcessor).handlePaymentsCompleted(List.of(failing));
+
+        // Act
+        listener.onPaymentCompleted(failing);
+        listener.onPaymentCompleted(next);
+
+        // Assert
+        verify(paymentEventProcessor, timeout(2000)).handlePaymentsCompleted(List.of(next));
+        listener.shutdown();
+    }
+}
@@ -0,0 +1,43 @@
+package com.vietct.OrderFlow.payment.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vietct.OrderFlow.payment.event.PaymentCompletedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentEventConsumerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private PaymentEventProcessor paymentEventProcessor;
+
+    @Test
+    void onPaymentEvents_handsWholeBatchOverAndSkipsMalformedRecords() throws Exception {
+        // Arrange
+        PaymentCompletedEvent event = new PaymentCompletedEvent(UUID.randomUUID(), UUID.randomUUID(),
+                new BigDecimal("42.00"), "MOCK_CARD", Instant.parse("2025-01-01T00:00:00Z"));
+        List<ConsumerRecord<String, String>> records = List.of(
+                new ConsumerRecord<>("payment.events", 0, 10, event.paymentId().toString(),
+                        objectMapper.writeValueAsString(event)),
+                new ConsumerRecord<>("payment.events", 0, 11, "broken", "{not json"));
+        PaymentEventConsumer consumer = new PaymentEventConsumer(paymentEventProcessor, objectMapper);
+
+        // Act
+        consumer.onPaymentEvents(records);
+
+        // Assert
+        verify(paymentEventProcessor).handlePaymentsCompleted(List.of(event));
+    }
+}
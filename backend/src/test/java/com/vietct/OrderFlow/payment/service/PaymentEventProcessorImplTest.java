@@ -0,0 +1,93 @@
+package com.vietct.OrderFlow.payment.service;
+
+import com.vietct.OrderFlow.notification.service.NotificationService;
+import com.vietct.OrderFlow.order.repository.OrderPaymentRepository.PaidOrder;
+import com.vietct.OrderFlow.order.repository.OrderRepository;
+import com.vietct.OrderFlow.payment.event.PaymentCompletedEvent;
+import com.vietct.OrderFlow.payment.idempotence.ProcessedPaymentEventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentEventProcessorImplTest {
+
+    @Mock
+    private ProcessedPaymentEventRepository processedPaymentEventRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @InjectMocks
+    private PaymentEventProcessorImpl processor;
+
+    private static PaymentCompletedEvent event(UUID orderId) {
+        return new PaymentCompletedEvent(UUID.randomUUID(), orderId, new BigDecimal("10.00"), "MOCK_CARD", Instant.now());
+    }
+
+    @Test
+    void handlePaymentsCompleted_onlyHandlesClaimedEventsInBulk() {
+        // Arrange
+        UUID orderId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        PaymentCompletedEvent fresh = event(orderId);
+        PaymentCompletedEvent seen = event(UUID.randomUUID());
+        when(processedPaymentEventRepository.claimUnprocessed(anyCollection(), eq("PAYMENT_COMPLETED"), any()))
+                .thenReturn(List.of(fresh.paymentId()));
+        when(orderRepository.markPaid(Set.of(orderId))).thenReturn(List.of(new PaidOrder(orderId, userId)));
+
+        // Act
+        processor.handlePaymentsCompleted(List.of(fresh, seen, fresh));
+
+        // Assert
+        verify(processedPaymentEventRepository).claimUnprocessed(
+                eq(Set.of(fresh.paymentId(), seen.paymentId())), eq("PAYMENT_COMPLETED"), any());
+        verify(notificationService).notifyOrderPaid(orderId, userId, fresh.amount());
+        verifyNoMoreInteractions(notificationService);
+        verify(orderRepository, never()).findById(any());
+    }
+
+    @Test
+    void handlePaymentsCompleted_nothingNew_skipsOrderUpdate() {
+        // Arrange
+        when(processedPaymentEventRepository.claimUnprocessed(anyCollection(), any(), any())).thenReturn(List.of());
+
+        // Act
+        processor.handlePaymentsCompleted(List.of(event(UUID.randomUUID())));
+
+        // Assert
+        verify(orderRepository, never()).markPaid(any());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void handlePaymentsCompleted_orderGone_isRecordedWithoutNotification() {
+        // Arrange
+        PaymentCompletedEvent orphan = event(UUID.randomUUID());
+        when(processedPaymentEventRepository.claimUnprocessed(anyCollection(), any(), any()))
+                .thenReturn(List.of(orphan.paymentId()));
+        when(orderRepository.markPaid(any())).thenReturn(List.of());
+
+        // Act
+        processor.handlePaymentsCompleted(List.of(orphan));
+
+        // Assert
+        verifyNoInteractions(notificationService);
+    }
+}
@@ -0,0 +1,110 @@
+package com.vietct.OrderFlow.payment.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vietct.OrderFlow.order.domain.Order;
+import com.vietct.OrderFlow.outbox.domain.OutboxEvent;
+import com.vietct.OrderFlow.outbox.repository.OutboxEventRepository;
+import com.vietct.OrderFlow.payment.domain.Payment;
+import com.vietct.OrderFlow.payment.event.PaymentCompletedEvent;
+import com.vietct.OrderFlow.payment.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentServiceImplTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PaymentEventProcessor paymentEventProcessor;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<PaymentEventConsumer> paymentEventConsumerProvider;
+
+    @Mock
+    private PaymentEventConsumer paymentEventConsumer;
+
+    private final Order order = new Order();
+
+    @BeforeEach
+    void setUp() {
+        order.setId(UUID.randomUUID());
+        lenient().when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            ReflectionTestUtils.setField(payment, "id", UUID.randomUUID());
+            return payment;
+        });
+    }
+
+    private PaymentServiceImpl paymentService(PaymentCompletionMode mode) {
+        lenient().when(paymentEventConsumerProvider.getIfAvailable()).thenReturn(paymentEventConsumer);
+        return new PaymentServiceImpl(paymentRepository, outboxEventRepository, new ObjectMapper().findAndRegisterModules(),
+                paymentEventProcessor, new SimpleMeterRegistry(), eventPublisher, paymentEventConsumerProvider, mode);
+    }
+
+    @Test
+    void outboxMode_withoutPaymentEventConsumer_failsAtStartup() {
+        // Arrange
+        when(paymentEventConsumerProvider.getIfAvailable()).thenReturn(null);
+
+        // Act + Assert
+        assertThatThrownBy(() -> new PaymentServiceImpl(paymentRepository, outboxEventRepository, new ObjectMapper(),
+                paymentEventProcessor, new SimpleMeterRegistry(), eventPublisher, paymentEventConsumerProvider,
+                PaymentCompletionMode.OUTBOX))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("kafka");
+    }
+
+    @Test
+    void processPayment_inline_completesInsideTheTransaction() {
+        // Act
+        paymentService(PaymentCompletionMode.INLINE).processPayment(order, new BigDecimal("10.00"), "MOCK_CARD");
+
+        // Assert
+        verify(paymentEventProcessor).handlePaymentCompleted(any(PaymentCompletedEvent.class));
+        verifyNoInteractions(eventPublisher);
+        verify(outboxEventRepository).save(any(OutboxEvent.class));
+    }
+
+    @Test
+    void processPayment_afterCommit_onlyPublishesTheEvent() {
+        // Act
+        paymentService(PaymentCompletionMode.AFTER_COMMIT).processPayment(order, new BigDecimal("10.00"), "MOCK_CARD");
+
+        // Assert
+        verify(eventPublisher).publishEvent(any(PaymentCompletedEvent.class));
+        verifyNoInteractions(paymentEventProcessor);
+        verify(outboxEventRepository).save(any(OutboxEvent.class));
+    }
+
+    @Test
+    void processPayment_outbox_leavesCompletionToTheConsumer() {
+        // Act
+        paymentService(PaymentCompletionMode.OUTBOX).processPayment(order, new BigDecimal("10.00"), "MOCK_CARD");
+
+        // Assert
+        verifyNoInteractions(paymentEventProcessor, eventPublisher);
+        verify(outboxEventRepository).save(any(OutboxEvent.class));
+    }
+}